@@ -0,0 +1,11 @@
+package com.sky.constant;
+
+/**
+ * 批量操作相关常量
+ */
+public class BatchConstant {
+
+    //in条件中最多包含的id数量，超出时分批执行
+    public static final int MAX_IN_SIZE = 1000;
+
+}
@@ -24,5 +24,10 @@ public class MessageConstant {
     public static final String DISH_BE_RELATED_BY_SETMEAL = "当前菜品关联了套餐,不能删除";
     public static final String ORDER_STATUS_ERROR = "订单状态错误";
     public static final String ORDER_NOT_FOUND = "订单不存在";
+    public static final String PAGE_CURSOR_INVALID = "分页游标无效";
+    public static final String DATA_LOAD_TIMEOUT = "数据加载超时，请稍后重试";
+    public static final String SERVICE_BUSY = "服务繁忙，请稍后重试";
+    public static final String TOO_MANY_REQUESTS = "请求过于频繁，请稍后重试";
+    public static final String PAGE_FIELDS_INVALID = "查询字段无效";
 
 }
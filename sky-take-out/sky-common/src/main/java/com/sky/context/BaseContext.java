@@ -1,8 +1,17 @@
 package com.sky.context;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 当前请求的上下文(当前登录的员工id)
+ * 拦截器在请求开始时设置、请求结束后清理；提交到其他线程的任务通过 wrap 系列方法携带提交时的上下文
+ */
 public class BaseContext {
 
-    public static ThreadLocal<Long> threadLocal = new ThreadLocal<>();
+    private static final ThreadLocal<Long> threadLocal = new ThreadLocal<>();
 
     public static void setCurrentId(Long id) {
         threadLocal.set(id);
@@ -16,4 +25,87 @@ public class BaseContext {
         threadLocal.remove();
     }
 
+    /**
+     * 包装任务，执行时使用提交线程的上下文，执行完毕后恢复执行线程原有的上下文
+     * 不依赖线程继承关系，线程池线程、虚拟线程均适用
+     * @param task
+     * @return
+     */
+    public static Runnable wrap(Runnable task) {
+        Long captured = getCurrentId();
+        return () -> {
+            Long previous = getCurrentId();
+            set(captured);
+            try {
+                task.run();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装有返回值的任务，执行时使用提交线程的上下文
+     * @param task
+     * @return
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Long captured = getCurrentId();
+        return () -> {
+            Long previous = getCurrentId();
+            set(captured);
+            try {
+                return task.get();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装Callable任务，执行时使用提交线程的上下文
+     * @param task
+     * @return
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Long captured = getCurrentId();
+        return () -> {
+            Long previous = getCurrentId();
+            set(captured);
+            try {
+                return task.call();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * 在指定线程池中异步执行，携带当前上下文
+     * @param task
+     * @param executor
+     * @return
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task, Executor executor) {
+        return CompletableFuture.supplyAsync(wrap(task), executor);
+    }
+
+    /**
+     * 在指定线程池中异步执行，携带当前上下文
+     * @param task
+     * @param executor
+     * @return
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        return CompletableFuture.runAsync(wrap(task), executor);
+    }
+
+    private static void set(Long id) {
+        if (id == null) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(id);
+        }
+    }
+
 }
@@ -0,0 +1,17 @@
+package com.sky.context;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spring线程池的任务装饰器，提交到线程池的任务携带提交线程的上下文
+ * spring boot 自动配置的线程池会自动使用该装饰器
+ */
+@Component
+public class BaseContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return BaseContext.wrap(runnable);
+    }
+}
@@ -0,0 +1,43 @@
+package com.sky.enumeration;
+
+/**
+ * 分页查询总记录数的统计方式
+ */
+public enum CountMode {
+
+    /**
+     * 精确统计，每次执行count
+     */
+    EXACT,
+
+    /**
+     * 不统计，总记录数返回-1
+     */
+    NONE,
+
+    /**
+     * 估算，无过滤条件时使用表统计信息，有过滤条件时同CACHED
+     */
+    ESTIMATE,
+
+    /**
+     * 精确统计并短时间缓存
+     */
+    CACHED;
+
+    /**
+     * 根据请求参数解析统计方式，未指定或无法识别时精确统计
+     * @param value
+     * @return
+     */
+    public static CountMode of(String value) {
+        if (value != null) {
+            for (CountMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value)) {
+                    return mode;
+                }
+            }
+        }
+        return EXACT;
+    }
+}
@@ -0,0 +1,82 @@
+package com.sky.enumeration;
+
+import com.sky.constant.MessageConstant;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 错误码，与MessageConstant中的提示信息一一对应，作为 Result.code 返回，客户端按错误码而不是提示文字判断错误类型
+ * 错误码发布后不再修改，新增提示信息时在对应分组末尾追加
+ * 1xxx 账号与登录，2xxx 分类、菜品与套餐，3xxx 购物车与订单，4xxx 请求参数，5xxx 服务端
+ */
+public enum ErrorCode {
+
+    PASSWORD_ERROR(1001, MessageConstant.PASSWORD_ERROR),
+    ACCOUNT_NOT_FOUND(1002, MessageConstant.ACCOUNT_NOT_FOUND),
+    ACCOUNT_LOCKED(1003, MessageConstant.ACCOUNT_LOCKED),
+    ALREADY_EXISTS(1004, MessageConstant.ALREADY_EXISTS),
+    USER_NOT_LOGIN(1005, MessageConstant.USER_NOT_LOGIN),
+    LOGIN_FAILED(1006, MessageConstant.LOGIN_FAILED),
+    PASSWORD_EDIT_FAILED(1007, MessageConstant.PASSWORD_EDIT_FAILED),
+
+    CATEGORY_BE_RELATED_BY_SETMEAL(2001, MessageConstant.CATEGORY_BE_RELATED_BY_SETMEAL),
+    CATEGORY_BE_RELATED_BY_DISH(2002, MessageConstant.CATEGORY_BE_RELATED_BY_DISH),
+    SETMEAL_ENABLE_FAILED(2003, MessageConstant.SETMEAL_ENABLE_FAILED),
+    DISH_ON_SALE(2004, MessageConstant.DISH_ON_SALE),
+    SETMEAL_ON_SALE(2005, MessageConstant.SETMEAL_ON_SALE),
+    DISH_BE_RELATED_BY_SETMEAL(2006, MessageConstant.DISH_BE_RELATED_BY_SETMEAL),
+
+    SHOPPING_CART_IS_NULL(3001, MessageConstant.SHOPPING_CART_IS_NULL),
+    ADDRESS_BOOK_IS_NULL(3002, MessageConstant.ADDRESS_BOOK_IS_NULL),
+    ORDER_STATUS_ERROR(3003, MessageConstant.ORDER_STATUS_ERROR),
+    ORDER_NOT_FOUND(3004, MessageConstant.ORDER_NOT_FOUND),
+
+    UPLOAD_FAILED(4001, MessageConstant.UPLOAD_FAILED),
+    PAGE_CURSOR_INVALID(4002, MessageConstant.PAGE_CURSOR_INVALID),
+    PAGE_FIELDS_INVALID(4003, MessageConstant.PAGE_FIELDS_INVALID),
+
+    UNKNOWN_ERROR(5000, MessageConstant.UNKNOWN_ERROR),
+    DATA_LOAD_TIMEOUT(5001, MessageConstant.DATA_LOAD_TIMEOUT),
+    SERVICE_BUSY(5002, MessageConstant.SERVICE_BUSY),
+    TOO_MANY_REQUESTS(5003, MessageConstant.TOO_MANY_REQUESTS);
+
+    /**
+     * 没有对应错误码的提示信息(例如拼接了参数的提示)使用的通用失败码
+     */
+    public static final int GENERIC = 0;
+
+    private static final Map<String, ErrorCode> BY_MESSAGE = new HashMap<>();
+
+    static {
+        for (ErrorCode errorCode : values()) {
+            BY_MESSAGE.put(errorCode.msg, errorCode);
+        }
+    }
+
+    private final int code;
+    private final String msg;
+
+    ErrorCode(int code, String msg) {
+        this.code = code;
+        this.msg = msg;
+    }
+
+    /**
+     * 查找提示信息对应的错误码
+     * @param msg
+     * @return 没有对应错误码时返回 GENERIC
+     */
+    public static int codeOf(String msg) {
+        ErrorCode errorCode = msg == null ? null : BY_MESSAGE.get(msg);
+        return errorCode == null ? GENERIC : errorCode.code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getMsg() {
+        return msg;
+    }
+}
@@ -0,0 +1,23 @@
+package com.sky.enumeration;
+
+/**
+ * 限流维度
+ */
+public enum RateLimitKey {
+
+    /**
+     * 按当前登录的用户限流，未登录时按IP
+     */
+    USER,
+
+    /**
+     * 按当前登录的员工限流，未登录时按IP
+     */
+    EMPLOYEE,
+
+    /**
+     * 按客户端IP限流
+     */
+    IP
+
+}
@@ -0,0 +1,36 @@
+package com.sky.enumeration;
+
+/**
+ * 请求优先级，并发数接近上限时先拒绝低优先级请求
+ */
+public enum RequestPriority {
+
+    /**
+     * 高优先级，可以使用全部并发额度
+     */
+    HIGH(1.0),
+
+    /**
+     * 中优先级，可以使用85%的并发额度
+     */
+    MEDIUM(0.85),
+
+    /**
+     * 低优先级，可以使用70%的并发额度
+     */
+    LOW(0.7);
+
+    private final double share;
+
+    RequestPriority(double share) {
+        this.share = share;
+    }
+
+    /**
+     * 该优先级可以使用的并发额度比例
+     * @return
+     */
+    public double getShare() {
+        return share;
+    }
+}
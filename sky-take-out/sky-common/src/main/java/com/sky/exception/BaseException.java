@@ -2,14 +2,16 @@ package com.sky.exception;
 
 /**
  * 业务异常
+ * 业务异常用于正常的流程控制，不记录异常栈，抛出时不需要遍历调用栈
  */
 public class BaseException extends RuntimeException {
 
     public BaseException() {
+        super(null, null, false, false);
     }
 
     public BaseException(String msg) {
-        super(msg);
+        super(msg, null, false, false);
     }
 
 }
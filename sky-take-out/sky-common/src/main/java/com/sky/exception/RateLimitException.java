@@ -0,0 +1,13 @@
+package com.sky.exception;
+
+/**
+ * 请求过于频繁异常
+ */
+public class RateLimitException extends BaseException {
+
+    public RateLimitException(){}
+
+    public RateLimitException(String msg){
+        super(msg);
+    }
+}
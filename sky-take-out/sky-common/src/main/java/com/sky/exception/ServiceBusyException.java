@@ -0,0 +1,13 @@
+package com.sky.exception;
+
+/**
+ * 服务繁忙异常，请求被限流或隔离舱已满时抛出
+ */
+public class ServiceBusyException extends BaseException {
+
+    public ServiceBusyException(){}
+
+    public ServiceBusyException(String msg){
+        super(msg);
+    }
+}
@@ -1,5 +1,6 @@
 package com.sky.json;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
@@ -29,23 +30,56 @@ public class JacksonObjectMapper extends ObjectMapper {
     public static final String DEFAULT_DATE_TIME_FORMAT = "yyyy-MM-dd HH:mm";
     public static final String DEFAULT_TIME_FORMAT = "HH:mm:ss";
 
+    // DateTimeFormatter不可变且线程安全，所有实例共用
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DEFAULT_DATE_FORMAT);
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(DEFAULT_DATE_TIME_FORMAT);
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern(DEFAULT_TIME_FORMAT);
+
     public JacksonObjectMapper() {
-        super();
+        this(new JsonFactory());
+    }
+
+    /**
+     * 使用指定的数据格式，例如CBOR、Smile，与JSON共用同一套日期时间格式
+     * @param jsonFactory
+     */
+    public JacksonObjectMapper(JsonFactory jsonFactory) {
+        super(jsonFactory);
         //收到未知属性时不报异常
         this.configure(FAIL_ON_UNKNOWN_PROPERTIES, false);
 
         //反序列化时，属性不存在的兼容处理
         this.getDeserializationConfig().withoutFeatures(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
 
-        SimpleModule simpleModule = new SimpleModule()
-                .addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer(DateTimeFormatter.ofPattern(DEFAULT_DATE_TIME_FORMAT)))
-                .addDeserializer(LocalDate.class, new LocalDateDeserializer(DateTimeFormatter.ofPattern(DEFAULT_DATE_FORMAT)))
-                .addDeserializer(LocalTime.class, new LocalTimeDeserializer(DateTimeFormatter.ofPattern(DEFAULT_TIME_FORMAT)))
-                .addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(DateTimeFormatter.ofPattern(DEFAULT_DATE_TIME_FORMAT)))
-                .addSerializer(LocalDate.class, new LocalDateSerializer(DateTimeFormatter.ofPattern(DEFAULT_DATE_FORMAT)))
-                .addSerializer(LocalTime.class, new LocalTimeSerializer(DateTimeFormatter.ofPattern(DEFAULT_TIME_FORMAT)));
-
         //注册功能模块 例如，可以添加自定义序列化器和反序列化器
-        this.registerModule(simpleModule);
+        this.registerModule(timeModule());
+    }
+
+    /**
+     * 复制构造，配置和已注册的模块与原映射器一致
+     * @param src
+     */
+    protected JacksonObjectMapper(JacksonObjectMapper src) {
+        super(src);
+    }
+
+    @Override
+    public JacksonObjectMapper copy() {
+        _checkInvalidCopy(JacksonObjectMapper.class);
+        return new JacksonObjectMapper(this);
+    }
+
+    /**
+     * 日期时间类型的序列化器和反序列化器
+     * @return
+     */
+    private static SimpleModule timeModule() {
+        return new SimpleModule()
+                .addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer(DATE_TIME_FORMATTER))
+                .addDeserializer(LocalDate.class, new LocalDateDeserializer(DATE_FORMATTER))
+                .addDeserializer(LocalTime.class, new LocalTimeDeserializer(TIME_FORMATTER))
+                .addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(DATE_TIME_FORMATTER))
+                .addSerializer(LocalDate.class, new LocalDateSerializer(DATE_FORMATTER))
+                .addSerializer(LocalTime.class, new LocalTimeSerializer(TIME_FORMATTER));
     }
 }
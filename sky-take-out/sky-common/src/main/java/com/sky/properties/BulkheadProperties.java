@@ -0,0 +1,30 @@
+package com.sky.properties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.bulkhead")
+@Data
+public class BulkheadProperties {
+
+    /**
+     * 管理端、用户端请求分别在独立的线程池中执行
+     */
+    private boolean enabled = true;
+    private Pool admin = new Pool(20, 50); //管理端 /admin/**
+    private Pool user = new Pool(100, 200); //用户端 /user/**
+    private long timeout = 30000; //请求处理超时时间(毫秒)
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+        private int maxThreads; //最大线程数
+        private int queueCapacity; //排队等待的最大请求数，超过后直接拒绝
+    }
+
+}
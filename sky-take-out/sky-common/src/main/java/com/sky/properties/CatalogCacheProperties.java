@@ -0,0 +1,24 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.catalog-cache")
+@Data
+public class CatalogCacheProperties {
+
+    /**
+     * 用户端按分类查询菜品缓存相关配置
+     */
+    private long dishLocalMaximumSize = 500; //本地缓存最多保存的分类数
+    private long dishLocalTtl = 60000; //本地缓存过期时间(毫秒)
+    private long dishRedisTtl = 1800000; //redis缓存过期时间(毫秒)
+
+    /**
+     * 同一个key并发加载时，等待其他线程加载结果的超时时间(毫秒)
+     */
+    private long loadTimeout = 3000;
+
+}
@@ -0,0 +1,31 @@
+package com.sky.properties;
+
+import com.sky.enumeration.RequestPriority;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "sky.concurrency-limit")
+@Data
+public class ConcurrencyLimitProperties {
+
+    /**
+     * 根据响应时间自适应调整的并发上限
+     */
+    private boolean enabled = true;
+    private int initialLimit = 100; //初始并发上限
+    private int minLimit = 10; //并发上限的最小值
+    private int maxLimit = 1000; //并发上限的最大值
+    private int retryAfter = 1; //拒绝请求时建议客户端重试的间隔(秒)
+
+    /**
+     * 请求优先级，key为路径模式，多个模式匹配时取最精确的
+     */
+    private RequestPriority defaultPriority = RequestPriority.MEDIUM;
+    private Map<String, RequestPriority> priorities = new LinkedHashMap<>();
+
+}
@@ -0,0 +1,77 @@
+package com.sky.result;
+
+import com.sky.constant.MessageConstant;
+import com.sky.exception.BaseException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页的位置，按 (create_time, id) 倒序定位
+ * 对外以不透明的字符串传递
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageCursor implements Serializable {
+
+    private LocalDateTime createTime; //上一页最后一条记录的创建时间
+
+    private Long id; //上一页最后一条记录的id
+
+    /**
+     * 生成游标字符串
+     * @param createTime
+     * @param id
+     * @return
+     */
+    public static String encode(LocalDateTime createTime, Long id) {
+        String raw = createTime + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串，空字符串表示第一页
+     * @param cursor
+     * @return
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(',');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, index)), Long.valueOf(raw.substring(index + 1)));
+        } catch (RuntimeException e) {
+            throw new BaseException(MessageConstant.PAGE_CURSOR_INVALID);
+        }
+    }
+
+    /**
+     * 封装游标分页结果
+     * @param rows 按 pageSize + 1 查询到的数据，多出的一条用于判断是否还有下一页
+     * @param pageSize
+     * @param total
+     * @param createTime 获取记录的创建时间
+     * @param id 获取记录的id
+     * @return
+     */
+    public static <T> PageResult toPageResult(List<T> rows, int pageSize, long total,
+                                              Function<T, LocalDateTime> createTime, Function<T, Long> id) {
+        if (rows.size() <= pageSize) {
+            return new PageResult(total, rows, null);
+        }
+        List<T> records = new ArrayList<>(rows.subList(0, pageSize));
+        T last = records.get(pageSize - 1);
+        return new PageResult(total, records, encode(createTime.apply(last), id.apply(last)));
+    }
+}
@@ -0,0 +1,146 @@
+package com.sky.result;
+
+import com.sky.constant.MessageConstant;
+import com.sky.exception.BaseException;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分页查询可以选择的字段
+ * 客户端通过 fields 参数(逗号分隔的属性名)指定需要的属性，查询只选择对应的列，返回的记录只包含这些属性
+ */
+public class PageFields {
+
+    // 属性名 -> 查询列，只有登记过的属性可以选择，拼接到sql中的列都来自这里而不是请求参数
+    private final Map<String, String> columns = new LinkedHashMap<>();
+    // 属性名 -> getter
+    private final Map<String, Method> getters = new HashMap<>();
+    // 未选择时也要查询的属性，例如游标分页需要的 id、createTime
+    private final Set<String> required = new LinkedHashSet<>();
+    private final Map<String, PropertyDescriptor> descriptors = new HashMap<>();
+
+    /**
+     * @param type 查询结果的类型
+     * @param required 未选择时也要查询的属性
+     */
+    public PageFields(Class<?> type, String... required) {
+        try {
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                descriptors.put(descriptor.getName(), descriptor);
+            }
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException(e);
+        }
+        Collections.addAll(this.required, required);
+    }
+
+    /**
+     * 登记可以选择的属性
+     * @param property 属性名
+     * @param column 查询列，例如 d.name 或 c.name as category_name
+     * @return
+     */
+    public PageFields column(String property, String column) {
+        PropertyDescriptor descriptor = descriptors.get(property);
+        if (descriptor == null || descriptor.getReadMethod() == null) {
+            throw new IllegalArgumentException("属性不存在:" + property);
+        }
+        columns.put(property, column);
+        getters.put(property, descriptor.getReadMethod());
+        return this;
+    }
+
+    /**
+     * 解析 fields 参数
+     * @param fields 逗号分隔的属性名，为空时查询全部字段
+     * @return
+     */
+    public Selection select(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return new Selection(null, null);
+        }
+        Set<String> properties = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String property = field.trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            if (!columns.containsKey(property)) {
+                throw new BaseException(MessageConstant.PAGE_FIELDS_INVALID);
+            }
+            properties.add(property);
+        }
+        if (properties.isEmpty()) {
+            return new Selection(null, null);
+        }
+        Set<String> selected = new LinkedHashSet<>(required);
+        selected.addAll(properties);
+        List<String> selectColumns = new ArrayList<>();
+        for (String property : selected) {
+            selectColumns.add(columns.get(property));
+        }
+        return new Selection(properties, String.join(", ", selectColumns));
+    }
+
+    /**
+     * 一次查询选择的字段
+     */
+    public class Selection {
+
+        private final Set<String> properties; //返回的属性，为null表示全部
+        private final String columns; //查询列，为null表示全部
+
+        private Selection(Set<String> properties, String columns) {
+            this.properties = properties;
+            this.columns = columns;
+        }
+
+        /**
+         * 查询列，为null时查询全部字段
+         * @return
+         */
+        public String getColumns() {
+            return columns;
+        }
+
+        /**
+         * 将分页结果中的记录裁剪为只包含选择的属性
+         * @param pageResult
+         * @return
+         */
+        public PageResult apply(PageResult pageResult) {
+            if (properties == null) {
+                return pageResult;
+            }
+            List<Map<String, Object>> records = new ArrayList<>(pageResult.getRecords().size());
+            for (Object record : pageResult.getRecords()) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                for (String property : properties) {
+                    values.put(property, read(record, property));
+                }
+                records.add(values);
+            }
+            pageResult.setRecords(records);
+            return pageResult;
+        }
+
+        private Object read(Object record, String property) {
+            try {
+                return getters.get(property).invoke(record);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -19,4 +19,11 @@ public class PageResult implements Serializable {
 
     private List records; //当前页数据集合
 
+    private String cursor; //游标分页时下一页的游标，为空表示没有更多数据
+
+    public PageResult(long total, List records) {
+        this.total = total;
+        this.records = records;
+    }
+
 }
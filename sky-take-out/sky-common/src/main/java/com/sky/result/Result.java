@@ -1,5 +1,6 @@
 package com.sky.result;
 
+import com.sky.enumeration.ErrorCode;
 import lombok.Data;
 
 import java.io.Serializable;
@@ -11,7 +12,7 @@ import java.io.Serializable;
 @Data
 public class Result<T> implements Serializable {
 
-    private Integer code; //编码：1成功，0和其它数字为失败
+    private Integer code; //编码：1成功，0和其它数字为失败，失败时的编码见ErrorCode
     private String msg; //错误信息
     private T data; //数据
 
@@ -29,9 +30,13 @@ public class Result<T> implements Serializable {
     }
 
     public static <T> Result<T> error(String msg) {
+        return error(ErrorCode.codeOf(msg), msg);
+    }
+
+    public static <T> Result<T> error(int code, String msg) {
         Result result = new Result();
         result.msg = msg;
-        result.code = 0;
+        result.code = code;
         return result;
     }
 
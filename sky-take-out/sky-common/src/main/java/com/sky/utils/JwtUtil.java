@@ -2,13 +2,21 @@ package com.sky.utils;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JwtUtil {
+    // 按秘钥缓存已配置好的解析器，避免每次解析都重新创建解析器、转换秘钥
+    private static final Map<String, JwtParser> PARSERS = new ConcurrentHashMap<>();
+
     /**
      * 生成jwt
      * 使用Hs256算法, 私匙使用固定秘钥
@@ -46,13 +54,37 @@ public class JwtUtil {
      * @return
      */
     public static Claims parseJWT(String secretKey, String token) {
-        // 得到DefaultJwtParser
-        Claims claims = Jwts.parser()
-                // 设置签名的秘钥
-                .setSigningKey(secretKey.getBytes(StandardCharsets.UTF_8))
-                // 设置需要解析的jwt
-                .parseClaimsJws(token).getBody();
+        // 设置需要解析的jwt
+        Claims claims = parser(secretKey).parseClaimsJws(token).getBody();
         return claims;
     }
 
+    /**
+     * 计算令牌的SHA-256摘要，用于在缓存、吊销列表中代替令牌原文
+     *
+     * @param token 令牌
+     * @return Base64编码的摘要
+     */
+    public static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 获取指定秘钥的解析器，解析器配置完成后不再修改，可以多线程共用
+     *
+     * @param secretKey jwt秘钥
+     * @return
+     */
+    private static JwtParser parser(String secretKey) {
+        return PARSERS.computeIfAbsent(secretKey, key -> Jwts.parser()
+                // 设置签名的秘钥
+                .setSigningKey(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
 }
@@ -0,0 +1,99 @@
+package com.sky.utils;
+
+import com.sky.constant.MessageConstant;
+import com.sky.exception.BaseException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 合并同一个key的并发加载
+ * 同一时刻每个key只有一个线程执行加载，其他线程等待同一个结果，避免缓存失效瞬间大量请求同时查询数据库
+ *
+ * @param <K> key类型，不能为null
+ * @param <V> 加载结果类型
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder(); //实际执行的加载次数
+    private final LongAdder coalesced = new LongAdder(); //等待其他线程加载结果的次数
+    private final LongAdder timeouts = new LongAdder(); //等待超时的次数
+
+    /**
+     * 加载指定key的数据，已有线程在加载时等待其结果
+     *
+     * @param key           加载的key
+     * @param timeoutMillis 等待其他线程加载结果的超时时间(毫秒)
+     * @param loader        加载数据
+     * @return
+     */
+    public V load(K key, long timeoutMillis, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing, timeoutMillis);
+        }
+        loads.increment();
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * 当前正在加载的key数量
+     * @return
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> future, long timeoutMillis) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new BaseException(MessageConstant.DATA_LOAD_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BaseException(MessageConstant.DATA_LOAD_TIMEOUT);
+        } catch (ExecutionException e) {
+            // 加载线程的异常原样抛给等待的线程
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
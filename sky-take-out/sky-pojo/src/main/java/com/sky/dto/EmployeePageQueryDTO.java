@@ -16,4 +16,13 @@ public class EmployeePageQueryDTO implements Serializable {
     //每页显示记录数
     private int pageSize;
 
+    //游标分页时上一页返回的游标，首页传空字符串，不传则按页码分页
+    private String cursor;
+
+    //总记录数统计方式 exact/none/estimate/cached，默认exact
+    private String countMode;
+
+    //需要返回的属性，逗号分隔，例如 id,name,status，不传则返回全部属性
+    private String fields;
+
 }
@@ -3,6 +3,7 @@ package com.sky.dto;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.util.List;
 
 @Data
 public class SetmealPageQueryDTO implements Serializable {
@@ -19,4 +20,16 @@ public class SetmealPageQueryDTO implements Serializable {
     //状态 0表示禁用 1表示启用
     private Integer status;
 
+    //按名称检索索引得到的id，不为空时替代名称模糊查询，由服务端填充
+    private List<Long> ids;
+
+    //游标分页时上一页返回的游标，首页传空字符串，不传则按页码分页
+    private String cursor;
+
+    //总记录数统计方式 exact/none/estimate/cached，默认exact
+    private String countMode;
+
+    //需要返回的属性，逗号分隔，例如 id,name,status，不传则返回全部属性
+    private String fields;
+
 }
@@ -30,6 +30,8 @@ public class DishVO implements Serializable {
     private String description;
     //0 停售 1 起售
     private Integer status;
+    //创建时间
+    private LocalDateTime createTime;
     //更新时间
     private LocalDateTime updateTime;
     //分类名称
@@ -0,0 +1,32 @@
+package com.sky.vo;
+
+import com.sky.entity.Category;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 用户端完整菜单
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuVO implements Serializable {
+
+    //菜单版本号，任一分类、菜品、套餐修改后递增
+    private Long version;
+
+    //启用的分类
+    private List<Category> categories;
+
+    //启用的菜品及口味
+    private List<DishVO> dishes;
+
+    //启用的套餐及套餐菜品
+    private List<SetmealVO> setmeals;
+}
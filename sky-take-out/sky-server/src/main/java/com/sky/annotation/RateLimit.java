@@ -0,0 +1,28 @@
+package com.sky.annotation;
+
+import com.sky.enumeration.RateLimitKey;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 自定义注解，用于接口限流(令牌桶)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+    //限流名称，默认为 类名.方法名
+    String name() default "";
+
+    //限流维度
+    RateLimitKey key() default RateLimitKey.IP;
+
+    //每秒生成的令牌数
+    double permitsPerSecond();
+
+    //令牌桶容量，即允许的突发请求数
+    int burst();
+
+}
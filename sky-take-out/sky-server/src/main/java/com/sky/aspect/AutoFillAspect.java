@@ -12,8 +12,12 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 /**
  * 自动填充切面类
@@ -31,6 +35,16 @@ public class AutoFillAspect {
     public void autofillPointCut(){
         // 切入点方法体为空，实际逻辑在通知中实现
     }
+    /**
+     * 按实体类缓存公共字段的setter，每个类只解析一次
+     */
+    private static final ClassValue<FillSetters> SETTERS = new ClassValue<FillSetters>() {
+        @Override
+        protected FillSetters computeValue(Class<?> type) {
+            return new FillSetters(type);
+        }
+    };
+
     /**
      * 前置通知
      * 在切入点方法执行前执行
@@ -39,7 +53,7 @@ public class AutoFillAspect {
     @Before("autofillPointCut()")
     public void autoFillBefore(JoinPoint joinPoint) {
 
-        log.info("自动填充前置通知执行");
+        log.debug("自动填充前置通知执行");
         // 获取当前拦截的方法的数据库操作类型
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
         AutoFill autoFill = signature.getMethod().getAnnotation(AutoFill.class);
@@ -50,37 +64,77 @@ public class AutoFillAspect {
             log.warn("没有传入参数，无法进行自动填充");
             return;
         }
-        // 假设第一个参数是实体对象
-        Object entity = args[0];
+        // 假设第一个参数是实体对象，或者实体对象的集合、数组
+        Object arg = args[0];
         // 准备赋值的数据
         LocalDateTime now = LocalDateTime.now();
         Long currentId = BaseContext.getCurrentId();
         // 赋值
-        if(operationType == OperationType.INSERT){
-            try {
-                Method setCreateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_CREATE_TIME, LocalDateTime.class);
-                Method setUpdateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_TIME, LocalDateTime.class);
-                Method setCreateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_CREATE_USER, Long.class);
-                Method setUpdateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_USER, Long.class);
-                // 调用方法进行赋值
-                setCreateTime.invoke(entity, now);
-                setUpdateTime.invoke(entity, now);
-                setCreateUser.invoke(entity, currentId);
-                setUpdateUser.invoke(entity, currentId);
-            } catch (Exception e) {
-                e.printStackTrace();
+        if (arg instanceof Collection) {
+            for (Object entity : (Collection<?>) arg) {
+                fill(entity, operationType, now, currentId);
             }
-        }else if(operationType == OperationType.UPDATE){
-            try {
-                Method setUpdateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_TIME, LocalDateTime.class);
-                Method setUpdateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_USER, Long.class);
-                // 调用方法进行赋值
-                setUpdateTime.invoke(entity, now);
-                setUpdateUser.invoke(entity, currentId);
-            } catch (Exception e) {
-                e.printStackTrace();
+        } else if (arg instanceof Object[]) {
+            for (Object entity : (Object[]) arg) {
+                fill(entity, operationType, now, currentId);
             }
+        } else {
+            fill(arg, operationType, now, currentId);
+        }
+    }
 
+    private void fill(Object entity, OperationType operationType, LocalDateTime now, Long currentId) {
+        if (entity == null) {
+            return;
+        }
+        FillSetters setters = SETTERS.get(entity.getClass());
+        try {
+            if (operationType == OperationType.INSERT) {
+                setters.set(setters.setCreateTime, entity, now);
+                setters.set(setters.setCreateUser, entity, currentId);
+            }
+            if (operationType == OperationType.INSERT || operationType == OperationType.UPDATE) {
+                setters.set(setters.setUpdateTime, entity, now);
+                setters.set(setters.setUpdateUser, entity, currentId);
+            }
+        } catch (Throwable e) {
+            log.error("公共字段自动填充失败:{}", entity.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * 实体类的公共字段setter，实体类没有对应字段时为null
+     */
+    private static class FillSetters {
+        private final MethodHandle setCreateTime;
+        private final MethodHandle setUpdateTime;
+        private final MethodHandle setCreateUser;
+        private final MethodHandle setUpdateUser;
+
+        FillSetters(Class<?> type) {
+            setCreateTime = find(type, AutoFillConstant.SET_CREATE_TIME, LocalDateTime.class);
+            setUpdateTime = find(type, AutoFillConstant.SET_UPDATE_TIME, LocalDateTime.class);
+            setCreateUser = find(type, AutoFillConstant.SET_CREATE_USER, Long.class);
+            setUpdateUser = find(type, AutoFillConstant.SET_UPDATE_USER, Long.class);
+        }
+
+        void set(MethodHandle setter, Object entity, Object value) throws Throwable {
+            if (setter != null) {
+                setter.invokeExact(entity, value);
+            }
+        }
+
+        /**
+         * 查找public的setter，统一转换为 (Object, Object)void 以便直接调用
+         */
+        private static MethodHandle find(Class<?> type, String name, Class<?> parameterType) {
+            try {
+                Method method = type.getMethod(name, parameterType);
+                return MethodHandles.publicLookup().unreflect(method)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return null;
+            }
         }
     }
 }
@@ -0,0 +1,120 @@
+package com.sky.aspect;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sky.annotation.RateLimit;
+import com.sky.constant.MessageConstant;
+import com.sky.context.BaseContext;
+import com.sky.exception.RateLimitException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流切面类
+ * 令牌桶保存在redis中，通过lua脚本原子地补充和取出令牌，多个节点共用同一个令牌桶
+ */
+@Aspect
+@Component
+@Slf4j
+public class RateLimitAspect {
+
+    public static final String KEY_PREFIX = "rate_limit:";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final DefaultRedisScript<Long> tokenBucketScript = new DefaultRedisScript<>();
+    // 被redis拒绝的调用方在需要等待的时间内直接在本地拒绝，不再访问redis
+    private final Cache<String, Long> blockedUntil = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
+
+    public RateLimitAspect() {
+        tokenBucketScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("script/token_bucket.lua")));
+        tokenBucketScript.setResultType(Long.class);
+    }
+
+    /**
+     *切入点
+     * 监听所有使用了@RateLimit注解的Controller方法
+     */
+    @Pointcut("execution(* com.sky.controller..*.*(..)) && @annotation(com.sky.annotation.RateLimit)")
+    public void rateLimitPointCut(){
+        // 切入点方法体为空，实际逻辑在通知中实现
+    }
+
+    /**
+     * 前置通知
+     * 令牌不足时抛出异常，不执行Controller方法
+     */
+    @Before("rateLimitPointCut() && @annotation(rateLimit)")
+    public void rateLimitBefore(JoinPoint joinPoint, RateLimit rateLimit) {
+        String key = key(joinPoint, rateLimit);
+        // 本地预检查
+        Long until = blockedUntil.getIfPresent(key);
+        if (until != null && until - System.nanoTime() > 0) {
+            throw new RateLimitException(MessageConstant.TOO_MANY_REQUESTS);
+        }
+        Long waitMillis;
+        try {
+            waitMillis = stringRedisTemplate.execute(tokenBucketScript, Collections.singletonList(key),
+                    String.valueOf(rateLimit.permitsPerSecond()), String.valueOf(rateLimit.burst()));
+        } catch (Exception e) {
+            // redis不可用时不限流，避免影响正常请求
+            log.warn("限流检查失败:{}", e.getMessage());
+            return;
+        }
+        if (waitMillis != null && waitMillis > 0) {
+            blockedUntil.put(key, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis));
+            throw new RateLimitException(MessageConstant.TOO_MANY_REQUESTS);
+        }
+    }
+
+    /**
+     * 令牌桶key：前缀 + 限流名称 + 维度 + 调用方标识
+     */
+    private String key(JoinPoint joinPoint, RateLimit rateLimit) {
+        String name = rateLimit.name();
+        if (name.isEmpty()) {
+            name = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        }
+        String caller;
+        switch (rateLimit.key()) {
+            case USER:
+            case EMPLOYEE:
+                Long currentId = BaseContext.getCurrentId();
+                caller = currentId != null ? String.valueOf(currentId) : "ip:" + clientIp();
+                break;
+            default:
+                caller = clientIp();
+        }
+        return KEY_PREFIX + name + ":" + rateLimit.key().name().toLowerCase() + ":" + caller;
+    }
+
+    private String clientIp() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return "unknown";
+        }
+        HttpServletRequest request = attributes.getRequest();
+        // 不读取X-Forwarded-For，客户端可以任意伪造；经过可信反向代理时由tomcat按
+        // server.tomcat.remoteip.internal-proxies 校验代理地址后改写remoteAddr
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,117 @@
+package com.sky.bulkhead;
+
+import com.sky.context.BaseContextTaskDecorator;
+import com.sky.properties.BulkheadProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 隔离舱：一类请求独占的有界线程池
+ * 执行中和排队中的请求数达到上限后直接拒绝，不占用线程等待
+ * 虚拟线程模式下不创建线程池，请求在自己的虚拟线程中执行，只用信号量限制同时执行的数量，
+ * 排队的请求在信号量上等待(虚拟线程等待不占用载体线程)，此时没有隔离舱超时，请求超时由调用方控制
+ */
+public class Bulkhead {
+
+    private final String name;
+    // 虚拟线程模式下为null
+    private final ThreadPoolTaskExecutor executor;
+    // 许可数 = 最大线程数 + 排队数
+    private final Semaphore permits;
+    // 虚拟线程模式下同时执行的请求数，许可数 = 最大线程数，平台线程模式下为null
+    private final Semaphore running;
+    private final Counter rejectedCounter;
+
+    public Bulkhead(String name, BulkheadProperties.Pool pool, BaseContextTaskDecorator taskDecorator,
+                    MeterRegistry meterRegistry, boolean virtualThreads) {
+        this.name = name;
+        int capacity = pool.getMaxThreads() + pool.getQueueCapacity();
+        this.permits = new Semaphore(capacity);
+        Gauge.builder("bulkhead.available", permits, Semaphore::availablePermits)
+                .tag("name", name).register(meterRegistry);
+        rejectedCounter = Counter.builder("bulkhead.rejected").tag("name", name).register(meterRegistry);
+        if (virtualThreads) {
+            this.executor = null;
+            this.running = new Semaphore(pool.getMaxThreads(), true);
+            int maxThreads = pool.getMaxThreads();
+            Gauge.builder("bulkhead.active", running, r -> maxThreads - r.availablePermits())
+                    .tag("name", name).register(meterRegistry);
+            Gauge.builder("bulkhead.queued", running, Semaphore::getQueueLength)
+                    .tag("name", name).register(meterRegistry);
+            return;
+        }
+        this.running = null;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pool.getMaxThreads());
+        executor.setMaxPoolSize(pool.getMaxThreads());
+        // 任务结束前许可已释放，队列留出余量，保证线程池本身不会拒绝
+        executor.setQueueCapacity(capacity);
+        executor.setThreadNamePrefix("bulkhead-" + name + "-");
+        executor.setTaskDecorator(taskDecorator);
+        executor.initialize();
+
+        // 线程池饱和度监控
+        Gauge.builder("bulkhead.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("name", name).register(meterRegistry);
+        Gauge.builder("bulkhead.queued", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("name", name).register(meterRegistry);
+    }
+
+    /**
+     * 申请一个许可，已满时返回false
+     * @return
+     */
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * 虚拟线程模式下在调用线程中执行，同时执行的数量达到上限时等待
+     * @param task
+     * @return
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        running.acquire();
+        try {
+            return task.call();
+        } finally {
+            running.release();
+        }
+    }
+
+    /**
+     * 是否在调用线程中执行(虚拟线程模式)
+     * @return
+     */
+    public boolean isInline() {
+        return executor == null;
+    }
+
+    public AsyncTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
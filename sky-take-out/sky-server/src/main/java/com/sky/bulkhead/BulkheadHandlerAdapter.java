@@ -0,0 +1,100 @@
+package com.sky.bulkhead;
+
+import com.sky.constant.MessageConstant;
+import com.sky.exception.ServiceBusyException;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 在所属隔离舱的线程池中执行Controller方法
+ * 参数解析仍在tomcat线程中完成，Controller方法以异步请求的方式交给隔离舱线程池执行，结果由spring mvc再次分派处理
+ * 虚拟线程模式下不切换线程，在当前虚拟线程中受隔离舱并发数限制执行
+ */
+public class BulkheadHandlerAdapter extends RequestMappingHandlerAdapter {
+
+    private final Bulkheads bulkheads;
+
+    public BulkheadHandlerAdapter(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        if (!supportsAsync(handlerMethod)) {
+            return super.createInvocableHandlerMethod(handlerMethod);
+        }
+        return new BulkheadInvocableHandlerMethod(handlerMethod);
+    }
+
+    /**
+     * 无返回值的方法直接操作响应，本身已是异步的方法由其自己管理线程，这两类方法不切换线程
+     */
+    private boolean supportsAsync(HandlerMethod handlerMethod) {
+        Class<?> returnType = handlerMethod.getReturnType().getParameterType();
+        return returnType != void.class
+                && !Callable.class.isAssignableFrom(returnType)
+                && !WebAsyncTask.class.isAssignableFrom(returnType)
+                && !DeferredResult.class.isAssignableFrom(returnType)
+                && !CompletionStage.class.isAssignableFrom(returnType)
+                && !ListenableFuture.class.isAssignableFrom(returnType);
+    }
+
+    private class BulkheadInvocableHandlerMethod extends ServletInvocableHandlerMethod {
+
+        BulkheadInvocableHandlerMethod(HandlerMethod handlerMethod) {
+            super(handlerMethod);
+        }
+
+        @Override
+        public Object invokeForRequest(NativeWebRequest request, ModelAndViewContainer mavContainer,
+                                       Object... providedArgs) throws Exception {
+            HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+            Bulkhead bulkhead = servletRequest == null ? null : bulkheads.match(servletRequest);
+            if (bulkhead == null) {
+                return super.invokeForRequest(request, mavContainer, providedArgs);
+            }
+            if (!bulkhead.tryAcquire()) {
+                // 隔离舱已满，快速拒绝
+                throw new ServiceBusyException(MessageConstant.SERVICE_BUSY);
+            }
+            if (bulkhead.isInline()) {
+                try {
+                    return bulkhead.call(() -> super.invokeForRequest(request, mavContainer, providedArgs));
+                } finally {
+                    bulkhead.release();
+                }
+            }
+            Object[] args;
+            try {
+                args = getMethodArgumentValues(request, mavContainer, providedArgs);
+            } catch (Exception e) {
+                bulkhead.release();
+                throw e;
+            }
+            // Controller方法及切面可能通过RequestContextHolder读取请求，带到隔离舱线程中
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            Callable<Object> callable = () -> {
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                try {
+                    return doInvoke(args);
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                    bulkhead.release();
+                }
+            };
+            return new WebAsyncTask<>(bulkheads.getTimeout(), bulkhead.getExecutor(), callable);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.sky.bulkhead;
+
+import com.sky.context.BaseContextTaskDecorator;
+import com.sky.properties.BulkheadProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按请求路径划分的隔离舱，管理端和用户端请求互不影响
+ */
+@Component
+@Slf4j
+public class Bulkheads {
+
+    @Autowired
+    private BulkheadProperties bulkheadProperties;
+    @Autowired
+    private BaseContextTaskDecorator baseContextTaskDecorator;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private Environment environment;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    // 路径模式 -> 隔离舱
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!bulkheadProperties.isEnabled()) {
+            return;
+        }
+        // 虚拟线程模式下请求已在虚拟线程中执行，再切换到平台线程池会失去虚拟线程的效果，隔离舱只限制并发数
+        boolean virtualThreads = environment.getProperty("sky.virtual-threads.enabled", Boolean.class, false);
+        bulkheads.put("/admin/**", new Bulkhead("admin", bulkheadProperties.getAdmin(),
+                baseContextTaskDecorator, meterRegistry, virtualThreads));
+        bulkheads.put("/user/**", new Bulkhead("user", bulkheadProperties.getUser(),
+                baseContextTaskDecorator, meterRegistry, virtualThreads));
+        log.info("请求隔离舱已创建:{}，虚拟线程模式:{}", bulkheads.keySet(), virtualThreads);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+
+    /**
+     * 查找请求所属的隔离舱，不属于任何隔离舱时返回null
+     * @param request
+     * @return
+     */
+    public Bulkhead match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Map.Entry<String, Bulkhead> entry : bulkheads.entrySet()) {
+            if (pathMatcher.match(entry.getKey(), path)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public long getTimeout() {
+        return bulkheadProperties.getTimeout();
+    }
+}
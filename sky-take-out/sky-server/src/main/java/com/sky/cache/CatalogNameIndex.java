@@ -0,0 +1,178 @@
+package com.sky.cache;
+
+import com.sky.constant.BatchConstant;
+import com.sky.entity.Dish;
+import com.sky.entity.Setmeal;
+import com.sky.mapper.DishMapper;
+import com.sky.mapper.SetmealMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 菜品、套餐名称的本地检索索引，替代 name like '%xxx%' 的全表扫描
+ * 写操作提交后按id从数据库刷新，并通过redis广播通知其他节点刷新，定时全量重建兜底
+ * 每次读取数据库之前取一个递增的版本号，索引只接受比已写入版本更新的数据，全量重建不会覆盖重建期间的刷新
+ */
+@Component
+@Slf4j
+public class CatalogNameIndex implements MessageListener, SubscriptionListener {
+
+    // 索引同步广播频道，消息内容为 类型:逗号分隔的id
+    public static final String SYNC_CHANNEL = "name_index_sync";
+    private static final String DISH = "dish";
+    private static final String SETMEAL = "setmeal";
+
+    @Autowired
+    private DishMapper dishMapper;
+    @Autowired
+    private SetmealMapper setmealMapper;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final NgramIndex dishIndex = new NgramIndex();
+    private final NgramIndex setmealIndex = new NgramIndex();
+    // 读取数据库之前递增，作为写入索引的版本号
+    private final AtomicLong versions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        // 先订阅再加载，订阅真正生效后会再重建一次，覆盖加载到订阅生效之间的修改
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(SYNC_CHANNEL));
+        rebuild();
+    }
+
+    /**
+     * 订阅生效(包括断线重连)后全量重建，补上未订阅期间丢失的广播
+     * @param channel
+     * @param count
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        rebuild();
+    }
+
+    /**
+     * 全量重建索引，兜底广播消息丢失的情况
+     */
+    @Scheduled(initialDelay = 600000, fixedDelay = 600000)
+    public void rebuild() {
+        long dishVersion = versions.incrementAndGet();
+        Map<Long, String> dishNames = new HashMap<>();
+        dishMapper.listNames().forEach(dish -> dishNames.put(dish.getId(), dish.getName()));
+        dishIndex.rebuild(dishNames, dishVersion);
+        long setmealVersion = versions.incrementAndGet();
+        Map<Long, String> setmealNames = new HashMap<>();
+        setmealMapper.listNames().forEach(setmeal -> setmealNames.put(setmeal.getId(), setmeal.getName()));
+        setmealIndex.rebuild(setmealNames, setmealVersion);
+        log.info("名称索引重建完成，菜品:{}，套餐:{}", dishIndex.size(), setmealIndex.size());
+    }
+
+    /**
+     * 查询名称包含指定内容的菜品id
+     * @param name
+     * @return
+     */
+    public List<Long> searchDish(String name) {
+        return dishIndex.search(name);
+    }
+
+    /**
+     * 查询名称包含指定内容的套餐id
+     * @param name
+     * @return
+     */
+    public List<Long> searchSetmeal(String name) {
+        return setmealIndex.search(name);
+    }
+
+    /**
+     * 菜品新增、修改、删除后刷新索引
+     * @param ids
+     */
+    public void dishChanged(Collection<Long> ids) {
+        changed(DISH, ids);
+    }
+
+    /**
+     * 套餐新增、修改、删除后刷新索引
+     * @param ids
+     */
+    public void setmealChanged(Collection<Long> ids) {
+        changed(SETMEAL, ids);
+    }
+
+    /**
+     * 接收其他节点的广播，刷新本节点的索引
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(':');
+        List<Long> ids = new ArrayList<>();
+        for (String id : body.substring(index + 1).split(",")) {
+            ids.add(Long.valueOf(id));
+        }
+        refresh(body.substring(0, index), ids);
+    }
+
+    private void changed(String type, Collection<Long> ids) {
+        List<Long> changedIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (changedIds.isEmpty()) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            refresh(type, changedIds);
+            String message = type + ":" + changedIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+            stringRedisTemplate.convertAndSend(SYNC_CHANNEL, message);
+        });
+    }
+
+    /**
+     * 按id从数据库读取最新名称，已不存在的记录从索引中删除
+     */
+    private void refresh(String type, List<Long> ids) {
+        long version = versions.incrementAndGet();
+        Set<Long> missing = new HashSet<>(ids);
+        for (List<Long> batch : ListUtils.partition(ids, BatchConstant.MAX_IN_SIZE)) {
+            if (DISH.equals(type)) {
+                for (Dish dish : dishMapper.getByIds(batch)) {
+                    dishIndex.put(dish.getId(), dish.getName(), version);
+                    missing.remove(dish.getId());
+                }
+            } else if (SETMEAL.equals(type)) {
+                for (Setmeal setmeal : setmealMapper.getByIds(batch)) {
+                    setmealIndex.put(setmeal.getId(), setmeal.getName(), version);
+                    missing.remove(setmeal.getId());
+                }
+            }
+        }
+        NgramIndex index = DISH.equals(type) ? dishIndex : setmealIndex;
+        missing.forEach(id -> index.remove(id, version));
+    }
+}
@@ -0,0 +1,127 @@
+package com.sky.cache;
+
+import com.sky.entity.Category;
+import com.sky.mapper.CategoryMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 启用分类的本地副本，按 sort 升序、create_time 降序排好
+ * 分类修改提交后重新加载，并通过redis广播通知其他节点重新加载
+ * 订阅生效(包括断线重连)后和定时重新加载，弥补未订阅期间丢失的广播
+ */
+@Component
+@Slf4j
+public class CategoryCache implements MessageListener, SubscriptionListener {
+
+    // 分类变更广播频道
+    public static final String CHANGE_CHANNEL = "category_changed";
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    // 按类型分组的启用分类，key为null时对应全部启用分类
+    private volatile Map<Integer, List<Category>> byType = Collections.emptyMap();
+    // 加载期间会查询数据库，使用显式锁而不是synchronized，虚拟线程等待时不会占住载体线程
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() {
+        // 监听容器启动后订阅才生效，订阅生效前的广播由 onChannelSubscribed 中的重新加载弥补
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+        reload();
+    }
+
+    /**
+     * 订阅生效(包括断线重连)后重新加载，补上未订阅期间丢失的广播
+     * @param channel
+     * @param count
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        reconcile();
+    }
+
+    /**
+     * 定时重新加载，弥补redis断线期间丢失的广播
+     */
+    @Scheduled(initialDelay = 60000, fixedDelay = 60000)
+    public void reconcile() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // 数据库不可用时保留当前数据
+            log.warn("重新加载分类数据失败:{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 根据类型查询启用的分类
+     * @param type 为null时查询全部
+     * @return 不可修改的分类列表
+     */
+    public List<Category> list(Integer type) {
+        return byType.getOrDefault(type, Collections.emptyList());
+    }
+
+    /**
+     * 分类新增、修改、启用禁用、删除后调用，存在事务时在事务提交后重新加载
+     */
+    public void changed() {
+        TransactionHooks.afterCommit(() -> {
+            reload();
+            stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, "");
+        });
+    }
+
+    /**
+     * 接收其他节点的变更广播，重新加载本节点的分类
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        reload();
+    }
+
+    /**
+     * 串行执行，避免先开始的加载覆盖后开始的加载结果
+     */
+    private void reload() {
+        reloadLock.lock();
+        try {
+            // 查询结果已按 sort 升序、create_time 降序排序，分组后保持原有顺序
+            List<Category> categories = categoryMapper.list(null);
+            Map<Integer, List<Category>> grouped = new HashMap<>();
+            categories.stream()
+                    .filter(category -> category.getType() != null)
+                    .collect(Collectors.groupingBy(Category::getType))
+                    .forEach((type, list) -> grouped.put(type, Collections.unmodifiableList(list)));
+            grouped.put(null, Collections.unmodifiableList(categories));
+            byType = grouped;
+            log.debug("分类数据已加载，数量:{}", categories.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
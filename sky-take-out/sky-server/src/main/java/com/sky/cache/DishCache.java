@@ -0,0 +1,192 @@
+package com.sky.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sky.properties.CatalogCacheProperties;
+import com.sky.utils.SingleFlight;
+import com.sky.vo.DishVO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户端按分类查询菜品的两级缓存
+ * 一级为本地缓存(有容量上限)，二级为redis，都未命中时才查询数据库
+ * redis中的菜品列表按分类版本号存放，清理缓存时递增版本号，
+ * 清理之前从数据库读到的旧数据只会写入旧版本的key，不会被读到，随过期时间删除
+ */
+@Component
+@Slf4j
+public class DishCache implements MessageListener {
+
+    public static final String KEY_PREFIX = "dish_";
+    // 分类的缓存版本号，菜品列表的key为 dish_分类id:版本号
+    public static final String VERSION_KEY_PREFIX = "dish_version_";
+    // 缓存失效广播频道，消息内容为逗号分隔的分类id
+    public static final String EVICT_CHANNEL = "dish_cache_evict";
+    private static final String CACHE_NAME = "dishByCategory";
+
+    @Autowired
+    private RedisTemplate<String, List<DishVO>> dishListRedisTemplate;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Autowired
+    private CatalogCacheProperties catalogCacheProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, List<DishVO>> localCache;
+    private Counter redisHitCounter;
+    private Counter redisMissCounter;
+    private Timer dbLoadTimer;
+    // 同一分类并发未命中时只有一个线程查询redis和数据库
+    private final SingleFlight<Long, List<DishVO>> singleFlight = new SingleFlight<>();
+    // 每次清理缓存时递增，加载期间发生过清理则不写入本地缓存
+    private final AtomicLong evictGeneration = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(catalogCacheProperties.getDishLocalMaximumSize())
+                .expireAfterWrite(catalogCacheProperties.getDishLocalTtl(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        // 本地缓存的命中、未命中、加载耗时
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, CACHE_NAME);
+        // redis缓存的命中、未命中以及数据库加载耗时
+        redisHitCounter = Counter.builder("cache.redis.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .register(meterRegistry);
+        redisMissCounter = Counter.builder("cache.redis.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .register(meterRegistry);
+        dbLoadTimer = Timer.builder("cache.db.load").tag("cache", CACHE_NAME).register(meterRegistry);
+        SingleFlightMetrics.monitor(meterRegistry, singleFlight, CACHE_NAME);
+        // 订阅其他节点广播的失效消息
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(EVICT_CHANNEL));
+    }
+
+    /**
+     * 根据分类id获取菜品，依次查询本地缓存、redis、数据库
+     * @param categoryId
+     * @param loader 数据库查询
+     * @return 不可修改的菜品列表
+     */
+    public List<DishVO> get(Long categoryId, Function<Long, List<DishVO>> loader) {
+        List<DishVO> cached = localCache.getIfPresent(categoryId);
+        if (cached != null) {
+            return cached;
+        }
+        return singleFlight.load(categoryId, catalogCacheProperties.getLoadTimeout(), () -> {
+            long generation = evictGeneration.get();
+            List<DishVO> dishVOList = loadFromRedis(categoryId, loader, generation);
+            // 检查和写入在同一个compute中完成，与清理同一个key互斥，清理不会夹在检查和写入之间
+            localCache.asMap().compute(categoryId,
+                    (id, old) -> evictGeneration.get() == generation ? dishVOList : old);
+            return dishVOList;
+        });
+    }
+
+    /**
+     * 清理指定分类的缓存，存在事务时在事务提交后清理
+     * @param categoryIds
+     */
+    public void evict(Collection<Long> categoryIds) {
+        Set<Long> ids = categoryIds.stream()
+                .filter(id -> id != null)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> doEvict(ids));
+    }
+
+    /**
+     * 清理指定分类的缓存
+     * @param categoryId
+     */
+    public void evict(Long categoryId) {
+        evict(Collections.singletonList(categoryId));
+    }
+
+    /**
+     * 接收失效广播，清理本节点的本地缓存
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        List<Long> ids = new ArrayList<>();
+        for (String id : body.split(",")) {
+            ids.add(Long.valueOf(id));
+        }
+        log.info("收到菜品缓存失效消息:{}", ids);
+        evictGeneration.incrementAndGet();
+        localCache.invalidateAll(ids);
+    }
+
+    private List<DishVO> loadFromRedis(Long categoryId, Function<Long, List<DishVO>> loader, long generation) {
+        String key = null;
+        try {
+            String version = stringRedisTemplate.opsForValue().get(VERSION_KEY_PREFIX + categoryId);
+            key = KEY_PREFIX + categoryId + ":" + (version == null ? "0" : version);
+            List<DishVO> cached = dishListRedisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                redisHitCounter.increment();
+                return Collections.unmodifiableList(cached);
+            }
+        } catch (Exception e) {
+            // redis不可用时直接查询数据库
+            log.warn("读取菜品缓存失败:{}", e.getMessage());
+        }
+        redisMissCounter.increment();
+        List<DishVO> dishVOList = new ArrayList<>(dbLoadTimer.record(() -> loader.apply(categoryId)));
+        // 读不到版本号，或加载期间本节点已清理过缓存，数据可能已过期，不写入redis
+        if (key == null || evictGeneration.get() != generation) {
+            return Collections.unmodifiableList(dishVOList);
+        }
+        try {
+            dishListRedisTemplate.opsForValue().set(key, dishVOList,
+                    catalogCacheProperties.getDishRedisTtl(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("写入菜品缓存失败:{}", e.getMessage());
+        }
+        return Collections.unmodifiableList(dishVOList);
+    }
+
+    private void doEvict(Set<Long> categoryIds) {
+        log.info("清理菜品缓存:{}", categoryIds);
+        evictGeneration.incrementAndGet();
+        localCache.invalidateAll(categoryIds);
+        // 递增版本号后读取方改用新key，旧key上的数据随过期时间删除
+        for (Long categoryId : categoryIds) {
+            stringRedisTemplate.opsForValue().increment(VERSION_KEY_PREFIX + categoryId);
+        }
+        String message = categoryIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        stringRedisTemplate.convertAndSend(EVICT_CHANNEL, message);
+    }
+}
@@ -0,0 +1,191 @@
+package com.sky.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sky.constant.StatusConstant;
+import com.sky.entity.Employee;
+import com.sky.mapper.EmployeeMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 员工账号状态的本地缓存，拦截器每次请求校验账号是否被禁用，不查询数据库
+ * 账号状态修改提交后刷新，并通过redis广播通知其他节点刷新
+ * 不存在(已删除)的员工id短时间缓存查询结果，持有旧令牌的请求不会每次都查询数据库
+ * 订阅生效(包括断线重连)后和定时全量重新加载，弥补未订阅期间丢失的广播；
+ * 每次查询数据库之前取一个递增的版本号，先开始的查询结果不会覆盖后开始的查询结果
+ */
+@Component
+@Slf4j
+public class EmployeeStatusCache implements MessageListener, SubscriptionListener {
+
+    // 账号状态变更广播频道，消息内容为员工id
+    public static final String CHANGE_CHANNEL = "employee_status_changed";
+    // 不存在的员工id的缓存时间(毫秒)和最大数量
+    private static final long MISSING_TTL = 30000;
+    private static final long MISSING_MAXIMUM_SIZE = 10000;
+
+    @Autowired
+    private EmployeeMapper employeeMapper;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<Long, VersionedStatus> statuses = new ConcurrentHashMap<>();
+    // 数据库中不存在的员工id
+    private final Cache<Long, Boolean> missing = Caffeine.newBuilder()
+            .maximumSize(MISSING_MAXIMUM_SIZE)
+            .expireAfterWrite(MISSING_TTL, TimeUnit.MILLISECONDS)
+            .build();
+
+    @PostConstruct
+    public void init() {
+        // 监听容器启动后订阅才生效，订阅生效前的广播由 onChannelSubscribed 中的重新加载弥补
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+        reload();
+        log.info("员工账号状态已加载，数量:{}", statuses.size());
+    }
+
+    /**
+     * 订阅生效(包括断线重连)后重新加载，补上未订阅期间丢失的广播
+     * @param channel
+     * @param count
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        reconcile();
+    }
+
+    /**
+     * 定时全量重新加载，弥补redis断线期间丢失的广播
+     */
+    @Scheduled(initialDelay = 60000, fixedDelay = 60000)
+    public void reconcile() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // 数据库不可用时保留当前状态
+            log.warn("重新加载员工账号状态失败:{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 员工账号是否可用，账号不存在或已禁用时返回false
+     * @param empId
+     * @return
+     */
+    public boolean isEnabled(Long empId) {
+        VersionedStatus current = statuses.get(empId);
+        Integer status;
+        if (current != null) {
+            status = current.getStatus();
+        } else {
+            if (missing.getIfPresent(empId) != null) {
+                return false;
+            }
+            // 其他节点新增的员工，首次访问时加载
+            status = refresh(empId);
+        }
+        return Objects.equals(status, StatusConstant.ENABLE);
+    }
+
+    /**
+     * 员工信息修改后调用，存在事务时在事务提交后刷新
+     * @param empId
+     */
+    public void changed(Long empId) {
+        if (empId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            refresh(empId);
+            stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, String.valueOf(empId));
+        });
+    }
+
+    /**
+     * 接收其他节点的变更广播，刷新本节点的缓存
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        refresh(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+    }
+
+    private Integer refresh(Long empId) {
+        long version = versions.incrementAndGet();
+        Employee employee = employeeMapper.getById(empId);
+        if (employee == null) {
+            remove(empId, version);
+            missing.put(empId, Boolean.TRUE);
+            return null;
+        }
+        missing.invalidate(empId);
+        apply(empId, employee.getStatus(), version);
+        return employee.getStatus();
+    }
+
+    /**
+     * 全量加载，删除数据库中已不存在的员工
+     */
+    private void reload() {
+        long version = versions.incrementAndGet();
+        List<Employee> employees = employeeMapper.listStatus();
+        Set<Long> ids = new HashSet<>();
+        for (Employee employee : employees) {
+            ids.add(employee.getId());
+            // 查询期间刚被删除的员工不再加回
+            if (missing.getIfPresent(employee.getId()) == null) {
+                apply(employee.getId(), employee.getStatus(), version);
+            }
+        }
+        for (Long empId : statuses.keySet()) {
+            if (!ids.contains(empId)) {
+                remove(empId, version);
+            }
+        }
+    }
+
+    /**
+     * 版本号大于当前版本时才更新
+     */
+    private void apply(Long empId, Integer status, long version) {
+        statuses.merge(empId, new VersionedStatus(status, version),
+                (old, next) -> next.getVersion() > old.getVersion() ? next : old);
+    }
+
+    private void remove(Long empId, long version) {
+        statuses.computeIfPresent(empId, (id, old) -> version > old.getVersion() ? null : old);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class VersionedStatus {
+        private final Integer status;
+        private final long version; //查询数据库之前的版本号
+    }
+}
@@ -0,0 +1,91 @@
+package com.sky.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sky.constant.JwtClaimsConstant;
+import com.sky.properties.JwtProperties;
+import com.sky.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 管理端已校验令牌的缓存，key为令牌的摘要，缓存到令牌过期为止
+ * 同一个令牌只在第一次请求时校验签名
+ */
+@Component
+public class JwtClaimsCache {
+
+    // 最多缓存的令牌数
+    private static final long MAXIMUM_SIZE = 10000;
+    private static final String CACHE_NAME = "jwtClaims";
+
+    @Autowired
+    private JwtProperties jwtProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, VerifiedToken> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long millis = value.getExpireAt() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 校验管理端令牌，返回员工id
+     * @param token
+     * @return
+     * @throws io.jsonwebtoken.JwtException 令牌无效或已过期
+     */
+    public Long verifyAdmin(String token) {
+        String key = JwtUtil.digest(token);
+        VerifiedToken verified = cache.getIfPresent(key);
+        if (verified != null && verified.getExpireAt() > System.currentTimeMillis()) {
+            return verified.getEmpId();
+        }
+        Claims claims = JwtUtil.parseJWT(jwtProperties.getAdminSecretKey(), token);
+        Long empId = Long.valueOf(claims.get(JwtClaimsConstant.EMP_ID).toString());
+        // 没有过期时间的令牌不缓存
+        if (claims.getExpiration() != null) {
+            cache.put(key, new VerifiedToken(empId, claims.getExpiration().getTime()));
+        }
+        return empId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class VerifiedToken {
+        private final Long empId;
+        private final long expireAt; //令牌过期时间戳(毫秒)
+    }
+}
@@ -0,0 +1,228 @@
+package com.sky.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sky.config.JacksonMappers;
+import com.sky.constant.BatchConstant;
+import com.sky.constant.StatusConstant;
+import com.sky.entity.Category;
+import com.sky.entity.Dish;
+import com.sky.entity.SetmealDish;
+import com.sky.mapper.CategoryMapper;
+import com.sky.mapper.DishMapper;
+import com.sky.mapper.SetmealDishMapper;
+import com.sky.mapper.SetmealMapper;
+import com.sky.result.Result;
+import com.sky.vo.DishVO;
+import com.sky.vo.MenuVO;
+import com.sky.vo.SetmealVO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 用户端完整菜单快照
+ * 菜单预先序列化为json字节，读请求直接返回；分类、菜品、套餐修改后递增版本号并在后台重建
+ * 订阅生效(包括断线重连)后重建一次，并定时核对redis中的版本号，未订阅期间丢失的广播不会导致一直返回旧菜单
+ */
+@Component
+@Slf4j
+public class MenuSnapshot implements MessageListener, SubscriptionListener {
+
+    // 菜单版本号，各节点共用
+    public static final String VERSION_KEY = "menu_version";
+    // 菜单变更广播频道，消息内容为新的版本号
+    public static final String CHANGE_CHANNEL = "menu_changed";
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+    @Autowired
+    private DishMapper dishMapper;
+    @Autowired
+    private SetmealMapper setmealMapper;
+    @Autowired
+    private SetmealDishMapper setmealDishMapper;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Autowired
+    private JacksonMappers jacksonMappers;
+
+    // 单线程重建，重建期间的多次修改合并为一次
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "menu-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile Snapshot current;
+
+    @PostConstruct
+    public void init() {
+        // 监听容器启动后订阅才生效，订阅生效前的广播由 onChannelSubscribed 中的重建弥补
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+        rebuild();
+    }
+
+    /**
+     * 订阅生效(包括断线重连)后重建，补上未订阅期间丢失的广播
+     * @param channel
+     * @param count
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        scheduleRebuild();
+    }
+
+    /**
+     * 定时核对redis中的版本号，与当前快照不一致时重建
+     */
+    @Scheduled(initialDelay = 60000, fixedDelay = 60000)
+    public void reconcile() {
+        String version;
+        try {
+            version = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+        } catch (Exception e) {
+            log.warn("读取菜单版本号失败:{}", e.getMessage());
+            return;
+        }
+        Snapshot snapshot = current;
+        if (snapshot == null || snapshot.getVersion() != (version == null ? 0L : Long.parseLong(version))) {
+            scheduleRebuild();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 获取当前菜单快照
+     * @return
+     */
+    public Snapshot get() {
+        return current;
+    }
+
+    /**
+     * 分类、菜品、套餐修改后调用，存在事务时在事务提交后递增版本号并通知各节点重建
+     */
+    public void changed() {
+        TransactionHooks.afterCommit(() -> {
+            try {
+                Long version = stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+                stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, String.valueOf(version));
+            } catch (Exception e) {
+                log.warn("菜单版本号更新失败:{}", e.getMessage());
+            }
+            scheduleRebuild();
+        });
+    }
+
+    /**
+     * 接收其他节点的变更广播，重建本节点的菜单
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    log.error("菜单快照重建失败", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * 先读取版本号再查询数据，保证快照中的数据不旧于版本号
+     */
+    private void rebuild() {
+        long version = currentVersion();
+        List<Category> categories = categoryMapper.list(null);
+        List<DishVO> dishes = dishMapper.listWithFlavor(Dish.builder().status(StatusConstant.ENABLE).build());
+        List<SetmealVO> setmeals = listSetmealWithDish();
+        MenuVO menuVO = MenuVO.builder()
+                .version(version)
+                .categories(categories)
+                .dishes(dishes)
+                .setmeals(setmeals)
+                .build();
+        byte[] body;
+        try {
+            body = jacksonMappers.getJson().writeValueAsBytes(Result.success(menuVO));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        // 强ETag由内容摘要生成，内容相同的节点返回相同的ETag
+        String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        current = new Snapshot(version, etag, body);
+        log.info("菜单快照已重建，版本:{}，大小:{}字节", version, body.length);
+    }
+
+    private long currentVersion() {
+        try {
+            String version = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+            return version == null ? 0L : Long.parseLong(version);
+        } catch (Exception e) {
+            log.warn("读取菜单版本号失败:{}", e.getMessage());
+            return current == null ? 0L : current.getVersion();
+        }
+    }
+
+    private List<SetmealVO> listSetmealWithDish() {
+        List<SetmealVO> setmeals = setmealMapper.listByStatus(StatusConstant.ENABLE);
+        List<Long> setmealIds = setmeals.stream().map(SetmealVO::getId).collect(Collectors.toList());
+        List<SetmealDish> setmealDishes = new ArrayList<>();
+        for (List<Long> batch : ListUtils.partition(setmealIds, BatchConstant.MAX_IN_SIZE)) {
+            setmealDishes.addAll(setmealDishMapper.getBySetmealIds(batch));
+        }
+        Map<Long, List<SetmealDish>> dishesBySetmeal = setmealDishes.stream()
+                .collect(Collectors.groupingBy(SetmealDish::getSetmealId));
+        setmeals.forEach(setmeal -> setmeal.setSetmealDishes(
+                dishesBySetmeal.getOrDefault(setmeal.getId(), new ArrayList<>())));
+        return setmeals;
+    }
+
+    /**
+     * 不可变的菜单快照
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final long version;
+        private final String etag;
+        private final byte[] body;
+    }
+}
@@ -0,0 +1,213 @@
+package com.sky.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 名称的n-gram倒排索引，按字符(码点)切分，支持中文等任意文字的子串检索
+ * 同时索引单字和相邻二字，单字查询直接取单字倒排表，多字查询取各二字倒排表的交集后再校验原文
+ * 每次写入带版本号，并发的刷新、全量重建以读取数据库的先后为准，先读到的旧数据不会覆盖后读到的新数据
+ */
+public class NgramIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // id -> 规范化后的名称
+    private final Map<Long, String> names = new HashMap<>();
+    // 单字或二字 -> 包含它的id
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    // id -> 最后一次写入的版本号，已删除的记录也保留版本号，直到被更新的全量重建覆盖
+    private final Map<Long, Long> versions = new HashMap<>();
+    // 最后一次全量重建的版本号，没有单独版本号的记录以它为准
+    private long baseVersion = Long.MIN_VALUE;
+
+    /**
+     * 新增或修改一条记录的名称，版本号低于已写入版本的旧数据被忽略
+     * @param id
+     * @param name 为null时删除
+     * @param version 读取数据库之前取得的版本号
+     */
+    public void put(Long id, String name, long version) {
+        lock.writeLock().lock();
+        try {
+            if (versions.getOrDefault(id, baseVersion) > version) {
+                return;
+            }
+            versions.put(id, version);
+            removeInternal(id);
+            if (name != null) {
+                putInternal(id, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除一条记录
+     * @param id
+     * @param version 读取数据库之前取得的版本号
+     */
+    public void remove(Long id, long version) {
+        put(id, null, version);
+    }
+
+    /**
+     * 用全部记录重建索引，重建期间以更高版本写入的记录保留，不被全量数据覆盖
+     * @param all id -> 名称
+     * @param version 读取数据库之前取得的版本号
+     */
+    public void rebuild(Map<Long, String> all, long version) {
+        lock.writeLock().lock();
+        try {
+            if (baseVersion > version) {
+                return;
+            }
+            Map<Long, String> newer = new HashMap<>();
+            Map<Long, Long> newerVersions = new HashMap<>();
+            versions.forEach((id, v) -> {
+                if (v > version) {
+                    newer.put(id, names.get(id));
+                    newerVersions.put(id, v);
+                }
+            });
+            names.clear();
+            postings.clear();
+            versions.clear();
+            all.forEach((id, name) -> {
+                if (!newerVersions.containsKey(id) && name != null) {
+                    putInternal(id, name);
+                }
+            });
+            newer.forEach((id, name) -> {
+                if (name != null) {
+                    putInternal(id, name);
+                }
+            });
+            versions.putAll(newerVersions);
+            baseVersion = version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询名称包含指定内容的记录，忽略大小写，与 like '%query%' 的结果一致
+     * @param query
+     * @return 匹配的id
+     */
+    public List<Long> search(String query) {
+        String normalized = normalize(query);
+        Set<String> grams = queryGrams(normalized);
+        // 不超过两个字时倒排表命中即为精确匹配
+        boolean exact = normalized.codePointCount(0, normalized.length()) <= 2;
+        lock.readLock().lock();
+        try {
+            if (grams.isEmpty()) {
+                return new ArrayList<>(names.keySet());
+            }
+            // 从最短的倒排表开始求交集
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return new ArrayList<>();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> candidates = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+                candidates.retainAll(lists.get(i));
+            }
+            // 二字都命中不代表连续出现，需要校验原文
+            List<Long> result = new ArrayList<>();
+            for (Long id : candidates) {
+                if (exact || names.get(id).contains(normalized)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前索引的记录数
+     * @return
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putInternal(Long id, String name) {
+        String normalized = normalize(name);
+        names.put(id, normalized);
+        for (String gram : indexGrams(normalized)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removeInternal(Long id) {
+        String old = names.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String gram : indexGrams(old)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 索引用的切分：每个单字以及每两个相邻的字
+     */
+    private static Set<String> indexGrams(String text) {
+        int[] codePoints = text.codePoints().toArray();
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i < codePoints.length; i++) {
+            grams.add(new String(codePoints, i, 1));
+            if (i + 1 < codePoints.length) {
+                grams.add(new String(codePoints, i, 2));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 查询用的切分：单字查询用单字，多字查询用全部相邻二字
+     */
+    private static Set<String> queryGrams(String text) {
+        int[] codePoints = text.codePoints().toArray();
+        Set<String> grams = new LinkedHashSet<>();
+        if (codePoints.length == 1) {
+            grams.add(new String(codePoints, 0, 1));
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            grams.add(new String(codePoints, i, 2));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,71 @@
+package com.sky.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.pagehelper.ISelect;
+import com.github.pagehelper.PageHelper;
+import com.sky.enumeration.CountMode;
+import com.sky.mapper.TableStatsMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页查询总记录数的统计
+ * 根据统计方式跳过、估算或短时间缓存count结果
+ */
+@Component
+public class PageTotalCache {
+
+    @Autowired
+    private TableStatsMapper tableStatsMapper;
+
+    // 缓存的count结果，key为 表名|过滤条件
+    private final Cache<String, Long> cache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(60, TimeUnit.SECONDS)
+            .build();
+
+    /**
+     * 统计总记录数
+     * @param countMode 统计方式
+     * @param table 表名
+     * @param filter 过滤条件，无过滤条件时为null
+     * @param countSelect 精确统计时执行的查询
+     * @return 总记录数，不统计时返回-1
+     */
+    public long total(CountMode countMode, String table, String filter, ISelect countSelect) {
+        switch (countMode) {
+            case NONE:
+                return -1;
+            case ESTIMATE:
+                if (filter == null) {
+                    Long rows = tableStatsMapper.estimateRows(table);
+                    if (rows != null) {
+                        return rows;
+                    }
+                }
+                // 有过滤条件时无法估算，按缓存方式统计
+                return cached(table, filter, countSelect);
+            case CACHED:
+                return cached(table, filter, countSelect);
+            default:
+                return PageHelper.count(countSelect);
+        }
+    }
+
+    /**
+     * count查询在缓存之外执行：cache.get(key, loader) 在 ConcurrentHashMap.compute 的锁内执行loader，
+     * 虚拟线程在其中阻塞会占住载体线程；并发未命中时同一条件可能重复count，结果相同，后写入的覆盖先写入的
+     */
+    private long cached(String table, String filter, ISelect countSelect) {
+        String key = table + "|" + filter;
+        Long total = cache.getIfPresent(key);
+        if (total == null) {
+            total = PageHelper.count(countSelect);
+            cache.put(key, total);
+        }
+        return total;
+    }
+}
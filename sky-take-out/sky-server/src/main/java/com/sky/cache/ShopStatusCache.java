@@ -0,0 +1,124 @@
+package com.sky.cache;
+
+import com.sky.constant.StatusConstant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 店铺营业状态的本地副本，用户端查询营业状态时不访问redis
+ * 设置营业状态后通过redis广播通知各节点，并定时与redis中的状态核对
+ * 每次更新(设置、收到广播、读取redis之前)取一个递增的版本号，只接受比当前版本更新的状态，
+ * 核对时读到的旧状态不会覆盖读取期间收到的广播
+ */
+@Component
+@Slf4j
+public class ShopStatusCache implements MessageListener, SubscriptionListener {
+
+    public static final String KEY = "SHOP_STATUS";
+    // 营业状态变更广播频道，消息内容为新的营业状态
+    public static final String CHANGE_CHANNEL = "shop_status_changed";
+
+    @Autowired
+    private RedisTemplate<String, Integer> shopStatusRedisTemplate;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final AtomicLong versions = new AtomicLong();
+    // 未设置过营业状态时按打烊处理
+    private final AtomicReference<VersionedStatus> current =
+            new AtomicReference<>(new VersionedStatus(StatusConstant.DISABLE, 0));
+
+    @PostConstruct
+    public void init() {
+        // 监听容器启动后订阅才生效，订阅生效前的广播由 onChannelSubscribed 中的核对弥补
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+        reconcile();
+    }
+
+    /**
+     * 订阅生效(包括断线重连)后核对一次，补上未订阅期间丢失的广播
+     * @param channel
+     * @param count
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        reconcile();
+    }
+
+    /**
+     * 获取营业状态
+     * @return 1 营业中 0 打烊中
+     */
+    public Integer getStatus() {
+        return current.get().getStatus();
+    }
+
+    /**
+     * 设置营业状态，写入redis后通知所有节点
+     * @param status
+     */
+    public void setStatus(Integer status) {
+        shopStatusRedisTemplate.opsForValue().set(KEY, status);
+        // 写入redis之后取版本号，版本号更大的核对一定读到这次或更新的写入
+        apply(status, versions.incrementAndGet());
+        stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, String.valueOf(status));
+    }
+
+    /**
+     * 接收营业状态变更广播
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        apply(Integer.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)), versions.incrementAndGet());
+    }
+
+    /**
+     * 定时按redis中的状态核对，弥补redis断线期间丢失的广播
+     */
+    @Scheduled(initialDelay = 60000, fixedDelay = 60000)
+    public void reconcile() {
+        long version = versions.incrementAndGet();
+        try {
+            Integer status = shopStatusRedisTemplate.opsForValue().get(KEY);
+            apply(status != null ? status : StatusConstant.DISABLE, version);
+        } catch (Exception e) {
+            // redis不可用时保留当前状态
+            log.warn("读取店铺营业状态失败:{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 版本号大于当前版本时才更新
+     */
+    private void apply(Integer status, long version) {
+        current.accumulateAndGet(new VersionedStatus(status, version),
+                (old, next) -> next.getVersion() > old.getVersion() ? next : old);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class VersionedStatus {
+        private final Integer status;
+        private final long version; //取得状态之前(读取redis之前、收到广播时)的版本号
+    }
+}
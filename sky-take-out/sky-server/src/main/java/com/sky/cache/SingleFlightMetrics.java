@@ -0,0 +1,27 @@
+package com.sky.cache;
+
+import com.sky.utils.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 合并加载的监控指标：实际加载次数、合并等待次数、等待超时次数、正在加载的key数量
+ */
+public class SingleFlightMetrics {
+
+    public static void monitor(MeterRegistry registry, SingleFlight<?, ?> singleFlight, String name) {
+        FunctionCounter.builder("singleflight.loads", singleFlight, SingleFlight::getLoads)
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("singleflight.coalesced", singleFlight, SingleFlight::getCoalesced)
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("singleflight.timeouts", singleFlight, SingleFlight::getTimeouts)
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("singleflight.inflight", singleFlight, SingleFlight::getInFlight)
+                .tag("name", name)
+                .register(registry);
+    }
+}
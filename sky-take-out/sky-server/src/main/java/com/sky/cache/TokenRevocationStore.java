@@ -0,0 +1,171 @@
+package com.sky.cache;
+
+import com.sky.properties.JwtProperties;
+import com.sky.utils.BloomFilter;
+import com.sky.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 已吊销令牌的存储
+ * redis中保存令牌摘要，过期时间为令牌的剩余有效期；各节点用本地布隆过滤器做镜像，
+ * 布隆过滤器判断不存在的令牌(绝大多数请求)不需要访问redis
+ * 订阅生效(包括断线重连)后重建一次，未订阅期间其他节点吊销的令牌不会漏掉
+ */
+@Component
+@Slf4j
+public class TokenRevocationStore implements MessageListener, SubscriptionListener {
+
+    public static final String KEY_PREFIX = "jwt_revoked:";
+    // 吊销广播频道，消息内容为令牌摘要
+    public static final String REVOKE_CHANNEL = "jwt_revoked";
+    // 布隆过滤器按该数量和误判率分配空间
+    private static final long EXPECTED_INSERTIONS = 100000;
+    private static final double FPP = 0.01;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private volatile BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FPP);
+    // 重建期间新吊销的令牌同时写入正在重建的过滤器
+    private volatile BloomFilter rebuilding;
+    // 重建期间会访问redis，使用显式锁而不是synchronized，虚拟线程等待时不会占住载体线程
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() {
+        // 监听容器启动后订阅才生效，订阅生效前的吊销广播由 onChannelSubscribed 中的重建弥补
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(REVOKE_CHANNEL));
+        rebuild();
+    }
+
+    /**
+     * 订阅生效(包括断线重连)后重建，补上未订阅期间丢失的吊销广播
+     * @param channel
+     * @param count
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("令牌吊销过滤器重建失败:{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 吊销管理端令牌，令牌已过期时无需处理
+     * @param token
+     */
+    public void revokeAdmin(String token) {
+        Claims claims = JwtUtil.parseJWT(jwtProperties.getAdminSecretKey(), token);
+        if (claims.getExpiration() == null) {
+            return;
+        }
+        long ttl = claims.getExpiration().getTime() - System.currentTimeMillis();
+        if (ttl <= 0) {
+            return;
+        }
+        String digest = JwtUtil.digest(token);
+        stringRedisTemplate.opsForValue().set(KEY_PREFIX + digest, "1", ttl, TimeUnit.MILLISECONDS);
+        add(digest);
+        stringRedisTemplate.convertAndSend(REVOKE_CHANNEL, digest);
+    }
+
+    /**
+     * 令牌是否已吊销，布隆过滤器命中时再查询redis确认
+     * @param token
+     * @return
+     */
+    public boolean isRevoked(String token) {
+        String digest = JwtUtil.digest(token);
+        if (!filter.mightContain(digest)) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(KEY_PREFIX + digest));
+        } catch (Exception e) {
+            // redis不可用时按已吊销处理
+            log.warn("查询令牌吊销状态失败:{}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 接收其他节点的吊销广播
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        add(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 布隆过滤器不能删除元素，定时按redis中未过期的记录重建，清除已过期的令牌
+     * 串行执行，同时进行的两次重建会互相覆盖正在重建的过滤器，导致重建期间的吊销丢失
+     */
+    @Scheduled(initialDelay = 600000, fixedDelay = 600000)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuilding = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        BloomFilter next = new BloomFilter(EXPECTED_INSERTIONS, FPP);
+        rebuilding = next;
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+        Long count = stringRedisTemplate.execute((RedisCallback<Long>) connection -> {
+            long n = 0;
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    String key = new String(cursor.next(), StandardCharsets.UTF_8);
+                    next.put(key.substring(KEY_PREFIX.length()));
+                    n++;
+                }
+            }
+            return n;
+        });
+        filter = next;
+        log.info("令牌吊销过滤器重建完成，数量:{}", count);
+    }
+
+    private void add(String digest) {
+        BloomFilter current = filter;
+        current.put(digest);
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(digest);
+        }
+        // 写入期间刚好完成重建时，补写到新的过滤器
+        if (filter != current) {
+            filter.put(digest);
+        }
+    }
+}
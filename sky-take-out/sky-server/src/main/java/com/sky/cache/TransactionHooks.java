@@ -0,0 +1,24 @@
+package com.sky.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 缓存、索引的同步时机
+ * 存在事务时在事务提交后执行，避免并发读取把旧数据重新写回；没有事务时立即执行
+ */
+public class TransactionHooks {
+
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
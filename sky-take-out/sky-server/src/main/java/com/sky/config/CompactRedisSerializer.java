@@ -0,0 +1,56 @@
+package com.sky.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * redis值的紧凑序列化器，按指定类型以smile(二进制json)格式读写
+ * 以前通过jdk序列化写入的值仍然可以读取，切换期间新旧格式共存
+ */
+public class CompactRedisSerializer<T> implements RedisSerializer<T> {
+
+    // jdk序列化流的头两个字节，smile数据以 ":)\n" 开头，两者不会混淆
+    private static final byte JDK_MAGIC_0 = (byte) 0xAC;
+    private static final byte JDK_MAGIC_1 = (byte) 0xED;
+
+    private final ObjectMapper objectMapper;
+    private final JavaType javaType;
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+    public CompactRedisSerializer(ObjectMapper objectMapper, JavaType javaType) {
+        this.objectMapper = objectMapper;
+        this.javaType = javaType;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new SerializationException("序列化失败:" + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length > 1 && bytes[0] == JDK_MAGIC_0 && bytes[1] == JDK_MAGIC_1) {
+            // 旧格式的值，下次写入时转为新格式
+            return (T) jdkSerializer.deserialize(bytes);
+        }
+        try {
+            return objectMapper.readValue(bytes, javaType);
+        } catch (Exception e) {
+            throw new SerializationException("反序列化失败:" + e.getMessage(), e);
+        }
+    }
+}
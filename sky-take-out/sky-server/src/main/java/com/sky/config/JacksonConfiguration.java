@@ -0,0 +1,49 @@
+package com.sky.config;
+
+import com.sky.dto.DishDTO;
+import com.sky.dto.SetmealDTO;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.result.PageResult;
+import com.sky.result.Result;
+import com.sky.vo.DishVO;
+import com.sky.vo.SetmealVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * 配置类，创建全局共用的对象映射器
+ */
+@Configuration
+@Slf4j
+public class JacksonConfiguration {
+
+    /**
+     * 消息转换器、菜单快照、错误响应共用的对象映射器
+     * 创建后每种格式先序列化常用的响应类型，序列化器在启动时就准备好，第一个请求不再承担这部分开销
+     * @return
+     */
+    @Bean
+    public JacksonMappers jacksonMappers() {
+        log.info("开始创建对象映射器...");
+        JacksonMappers jacksonMappers = new JacksonMappers();
+        warmUp(jacksonMappers.getJson());
+        warmUp(jacksonMappers.getCbor());
+        warmUp(jacksonMappers.getSmile());
+        return jacksonMappers;
+    }
+
+    private static void warmUp(JacksonObjectMapper objectMapper) {
+        try {
+            objectMapper.writeValueAsBytes(Result.success(new PageResult(1, Arrays.asList(new DishVO(), new SetmealVO()))));
+            objectMapper.writeValueAsBytes(Result.error(""));
+            objectMapper.readerFor(DishDTO.class);
+            objectMapper.readerFor(SetmealDTO.class);
+        } catch (Exception e) {
+            // 预热失败不影响使用，首次请求时再创建
+            log.warn("对象映射器预热失败:{}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.sky.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sky.json.JacksonObjectMapper;
+import lombok.Getter;
+
+/**
+ * 响应使用的对象映射器：JSON、CBOR、Smile 三种格式共用同一套日期时间格式
+ * 本身不是ObjectMapper，注入ObjectMapper的地方仍使用spring boot自动配置的映射器(spring.jackson.*配置生效)
+ */
+@Getter
+public class JacksonMappers {
+
+    private final JacksonObjectMapper json = new JacksonObjectMapper();
+    private final JacksonObjectMapper cbor = new JacksonObjectMapper(new CBORFactory());
+    private final JacksonObjectMapper smile = new JacksonObjectMapper(new SmileFactory());
+
+}
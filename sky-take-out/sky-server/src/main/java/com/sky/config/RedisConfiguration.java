@@ -1,24 +1,102 @@
 package com.sky.config;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sky.vo.DishVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.List;
+
+/**
+ * redis配置
+ * 按类型使用的模板(菜品列表、店铺营业状态)值为smile格式，通用的redisTemplate值仍为jdk序列化
+ * 滚动升级期间旧版本节点只能读取jdk序列化的值，读到新节点写入的smile值会抛出SerializationException：
+ * 菜品缓存的key已改为带版本号的新key，新旧节点互不读取；SHOP_STATUS在全部节点升级完成前不要修改营业状态
+ */
 @Configuration
 @Slf4j
 public class RedisConfiguration {
+
+    // redis值使用smile格式，时间类型按完整精度保存
+    // 重复的短字符串值(口味、图片地址、分类名称等)只写一次，后续写引用，否则体积大于jdk序列化
+    private final ObjectMapper redisObjectMapper = new ObjectMapper(
+            SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build())
+            .registerModule(new JavaTimeModule())
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * 通用的redis模板，值没有类型信息，保持jdk序列化，读取时可以还原为原来的类型
+     * @param redisConnectionFactory
+     * @return
+     */
     @Bean
     public RedisTemplate redisTemplate(RedisConnectionFactory redisConnectionFactory) {
         log.info("开始创建redisTemplate对象...");
-        RedisTemplate redisTemplate=new RedisTemplate();
+        RedisTemplate redisTemplate = new RedisTemplate();
+        //  设置redis连接工厂对象
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        // 设置redis key的序列化器，值使用默认的jdk序列化器
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        return redisTemplate;
+    }
+
+    /**
+     * 菜品缓存使用的redis模板，值为菜品列表
+     * @param redisConnectionFactory
+     * @return
+     */
+    @Bean
+    public RedisTemplate<String, List<DishVO>> dishListRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        return createTemplate(redisConnectionFactory,
+                redisObjectMapper.getTypeFactory().constructCollectionType(List.class, DishVO.class));
+    }
+
+    /**
+     * 店铺营业状态使用的redis模板
+     * @param redisConnectionFactory
+     * @return
+     */
+    @Bean
+    public RedisTemplate<String, Integer> shopStatusRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        return createTemplate(redisConnectionFactory, redisObjectMapper.constructType(Integer.class));
+    }
+
+    private <V> RedisTemplate<String, V> createTemplate(RedisConnectionFactory redisConnectionFactory, JavaType valueType) {
+        RedisTemplate<String, V> redisTemplate = new RedisTemplate<>();
         //  设置redis连接工厂对象
         redisTemplate.setConnectionFactory(redisConnectionFactory);
-        // 设置redisTemplate的序列化器
+        // 设置redisTemplate的序列化器，key为字符串，值为smile格式，兼容读取jdk序列化的旧值
+        CompactRedisSerializer<V> valueSerializer = new CompactRedisSerializer<>(redisObjectMapper, valueType);
         redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setHashValueSerializer(valueSerializer);
         return redisTemplate;
     }
 
+    /**
+     * redis消息监听容器，用于接收各节点广播的缓存失效消息
+     * @param redisConnectionFactory
+     * @return
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        log.info("开始创建redis消息监听容器...");
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
 }
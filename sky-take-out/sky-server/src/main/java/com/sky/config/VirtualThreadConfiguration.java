@@ -0,0 +1,59 @@
+package com.sky.config;
+
+import com.sky.context.BaseContextTaskDecorator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程模式，配置 sky.virtual-threads.enabled=true 时开启
+ * tomcat处理请求的线程和应用的异步任务线程池都改为每个任务一个虚拟线程，需要在JDK21及以上运行
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(prefix = "sky.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    private final ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+
+    /**
+     * tomcat使用虚拟线程处理请求
+     * @return
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        log.info("tomcat使用虚拟线程处理请求...");
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * 替换spring boot自动配置的异步任务线程池
+     * @param baseContextTaskDecorator
+     * @return
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public TaskExecutorAdapter applicationTaskExecutor(BaseContextTaskDecorator baseContextTaskDecorator) {
+        log.info("异步任务使用虚拟线程执行...");
+        TaskExecutorAdapter executor = new TaskExecutorAdapter(virtualThreadExecutor);
+        executor.setTaskDecorator(baseContextTaskDecorator);
+        return executor;
+    }
+
+    /**
+     * 项目按Java8编译，通过反射调用 Executors.newVirtualThreadPerTaskExecutor
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("当前JDK不支持虚拟线程，请使用JDK21及以上版本或关闭 sky.virtual-threads.enabled", e);
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.sky.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.bulkhead.BulkheadHandlerAdapter;
+import com.sky.bulkhead.Bulkheads;
 import com.sky.interceptor.JwtTokenAdminInterceptor;
-import com.sky.json.JacksonObjectMapper;
+import com.sky.properties.BulkheadProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -29,6 +35,12 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
 
     @Autowired
     private JwtTokenAdminInterceptor jwtTokenAdminInterceptor;
+    @Autowired
+    private Bulkheads bulkheads;
+    @Autowired
+    private BulkheadProperties bulkheadProperties;
+    @Autowired
+    private JacksonMappers jacksonMappers;
 
     /**
      * 注册自定义拦截器
@@ -89,6 +101,20 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
         registry.addResourceHandler("/webjars/**").addResourceLocations("classpath:/META-INF/resources/webjars/");
     }
 
+    /**
+     * 管理端、用户端请求分别在各自隔离舱的线程池中异步执行
+     *
+     * @return
+     */
+    @Override
+    protected RequestMappingHandlerAdapter createRequestMappingHandlerAdapter() {
+        if (!bulkheadProperties.isEnabled()) {
+            return super.createRequestMappingHandlerAdapter();
+        }
+        log.info("启用请求隔离舱...");
+        return new BulkheadHandlerAdapter(bulkheads);
+    }
+
     /**
      * 扩展消息转换器
      *
@@ -97,11 +123,26 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
     @Override
     protected void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
         log.info("扩展消息转换器...");
-        // 1、创建一个CBOR消息转换器对象
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
+        // 1、创建一个JSON消息转换器对象
+        MappingJackson2HttpMessageConverter converter = new JsonMessageConverter();
         // 2、将消息转换器设置为对象转换器，对象转换器可以将Java对象转换成JSON (序列化)
-        converter.setObjectMapper(new JacksonObjectMapper());
+        converter.setObjectMapper(jacksonMappers.getJson());
         // 3、将自定义的消息转换器添加到消息转换器列表中, 优先使用
         converters.add(0, converter);
+        // 4、客户端通过Accept请求头选择二进制的CBOR或Smile格式，日期时间格式与JSON一致
+        converters.add(1, new MappingJackson2CborHttpMessageConverter(jacksonMappers.getCbor()));
+        converters.add(2, new MappingJackson2SmileHttpMessageConverter(jacksonMappers.getSmile()));
+    }
+
+    /**
+     * JSON消息转换器，对外只提供映射器的副本
+     * 读写请求使用转换器内部的映射器，getObjectMapper只有其他组件调用(例如springfox读取映射器生成接口文档)，
+     * 它们对副本的修改不会影响与菜单快照、错误响应共用的映射器
+     */
+    private static class JsonMessageConverter extends MappingJackson2HttpMessageConverter {
+        @Override
+        public ObjectMapper getObjectMapper() {
+            return super.getObjectMapper().copy();
+        }
     }
 }
@@ -1,8 +1,10 @@
 package com.sky.controller.admin;
 
+import com.sky.annotation.RateLimit;
 import com.sky.dto.CategoryDTO;
 import com.sky.dto.CategoryPageQueryDTO;
 import com.sky.entity.Category;
+import com.sky.enumeration.RateLimitKey;
 import com.sky.result.PageResult;
 import com.sky.result.Result;
 import com.sky.service.CategoryService;
@@ -32,6 +34,7 @@ public class CategoryController {
      */
     @PostMapping
     @ApiOperation("新增分类")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result<String> save(@RequestBody CategoryDTO categoryDTO){
         log.info("新增分类：{}", categoryDTO);
         categoryService.save(categoryDTO);
@@ -58,6 +61,7 @@ public class CategoryController {
      */
     @DeleteMapping
     @ApiOperation("删除分类")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result<String> deleteById(Long id){
         log.info("删除分类：{}", id);
         categoryService.deleteById(id);
@@ -71,6 +75,7 @@ public class CategoryController {
      */
     @PutMapping
     @ApiOperation("修改分类")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result<String> update(@RequestBody CategoryDTO categoryDTO){
         categoryService.update(categoryDTO);
         return Result.success();
@@ -84,6 +89,7 @@ public class CategoryController {
      */
     @PostMapping("/status/{status}")
     @ApiOperation("启用禁用分类")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result<String> startOrStop(@PathVariable("status") Integer status, Long id){
         categoryService.startOrStop(status,id);
         return Result.success();
@@ -1,8 +1,10 @@
 package com.sky.controller.admin;
 
+import com.sky.annotation.RateLimit;
 import com.sky.dto.DishDTO;
 import com.sky.dto.DishPageQueryDTO;
 import com.sky.entity.Dish;
+import com.sky.enumeration.RateLimitKey;
 import com.sky.result.PageResult;
 import com.sky.result.Result;
 import com.sky.service.DishService;
@@ -32,6 +34,7 @@ public class DishController {
      */
     @PostMapping
     @ApiOperation("新增菜品")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result save(@RequestBody DishDTO dishDTO){
         log.info("新增菜品:{}",dishDTO);
         dishService.saveWithFlavor(dishDTO);
@@ -56,6 +59,7 @@ public class DishController {
      */
     @DeleteMapping
     @ApiOperation("批量删除菜品")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result delete(@RequestParam List<Long> ids){
         log.info("批量删除菜品:{}",ids);
         dishService.deleteBatch(ids);
@@ -80,6 +84,7 @@ public class DishController {
      */
     @PutMapping
     @ApiOperation("修改菜品")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result update(@RequestBody DishDTO dishDTO){
         log.info("修改菜品:{}",dishDTO);
 
@@ -107,6 +112,7 @@ public class DishController {
      */
     @PostMapping("/status/{status}")
     @ApiOperation("起售、停售菜品")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result startOrStop(@PathVariable Integer status, Long id) {
         log.info("起售、停售菜品:{},{}", status, id);
         dishService.startOrStop(status, id);
@@ -1,10 +1,13 @@
 package com.sky.controller.admin;
 
+import com.sky.annotation.RateLimit;
+import com.sky.cache.TokenRevocationStore;
 import com.sky.constant.JwtClaimsConstant;
 import com.sky.dto.EmployeeDTO;
 import com.sky.dto.EmployeeLoginDTO;
 import com.sky.dto.EmployeePageQueryDTO;
 import com.sky.entity.Employee;
+import com.sky.enumeration.RateLimitKey;
 import com.sky.properties.JwtProperties;
 import com.sky.result.PageResult;
 import com.sky.result.Result;
@@ -17,6 +20,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -33,6 +37,8 @@ public class EmployeeController {
     private EmployeeService employeeService;
     @Autowired
     private JwtProperties jwtProperties;
+    @Autowired
+    private TokenRevocationStore tokenRevocationStore;
 
     /**
      * 登录
@@ -42,6 +48,7 @@ public class EmployeeController {
      */
     @PostMapping("/login")
     @ApiOperation(value = "员工登录", notes = "员工登录接口")
+    @RateLimit(key = RateLimitKey.IP, permitsPerSecond = 0.2, burst = 5)
     public Result<EmployeeLoginVO> login(@RequestBody EmployeeLoginDTO employeeLoginDTO) {
         log.info("员工登录：{}", employeeLoginDTO);
 
@@ -72,7 +79,10 @@ public class EmployeeController {
      */
     @PostMapping("/logout")
     @ApiOperation(value = "员工退出", notes = "员工退出接口")
-    public Result<String> logout() {
+    public Result<String> logout(HttpServletRequest request) {
+        // 吊销当前令牌，退出后令牌不能继续使用
+        String token = request.getHeader(jwtProperties.getAdminTokenName());
+        tokenRevocationStore.revokeAdmin(token);
         return Result.success();
     }
 
@@ -1,7 +1,9 @@
 package com.sky.controller.admin;
 
+import com.sky.annotation.RateLimit;
 import com.sky.dto.SetmealDTO;
 import com.sky.dto.SetmealPageQueryDTO;
+import com.sky.enumeration.RateLimitKey;
 import com.sky.result.PageResult;
 import com.sky.result.Result;
 import com.sky.service.SetmealService;
@@ -28,6 +30,7 @@ public class SetmealController {
      */
     @PostMapping
     @ApiOperation("新增套餐")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result save(@RequestBody SetmealDTO setmealDTO){
         //
         setmealService.saveWithDish(setmealDTO);
@@ -53,6 +56,7 @@ public class SetmealController {
      */
     @DeleteMapping
     @ApiOperation("批量删除套餐")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result delete(@RequestParam List<Long> ids){
         log.info("批量删除套餐:{}",ids);
         setmealService.deleteBatch(ids);
@@ -77,6 +81,7 @@ public class SetmealController {
      */
     @PutMapping
     @ApiOperation("修改套餐")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result update(@RequestBody SetmealDTO setmealDTO){
         log.info("修改套餐:{}",setmealDTO);
         setmealService.update(setmealDTO);
@@ -90,11 +95,26 @@ public class SetmealController {
      */
     @PostMapping("/status/{status}")
     @ApiOperation("起售、停售套餐")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
     public Result startOrStop(@PathVariable Integer status, Long id){
         log.info("起售、停售套餐:{},{}",status,id);
         setmealService.startOrStop(status,id);
         return Result.success();
     }
+    /**
+     * 批量起售、停售套餐
+     * @param status
+     * @param ids
+     * @return
+     */
+    @PostMapping("/status/{status}/batch")
+    @ApiOperation("批量起售、停售套餐")
+    @RateLimit(key = RateLimitKey.EMPLOYEE, permitsPerSecond = 5, burst = 10)
+    public Result startOrStopBatch(@PathVariable Integer status, @RequestParam List<Long> ids){
+        log.info("批量起售、停售套餐:{},{}",status,ids);
+        setmealService.startOrStopBatch(status,ids);
+        return Result.success();
+    }
 
 
 }
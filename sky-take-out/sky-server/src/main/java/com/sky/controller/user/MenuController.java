@@ -0,0 +1,63 @@
+package com.sky.controller.user;
+
+import com.sky.cache.MenuSnapshot;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/user/menu")
+@Slf4j
+@Api(tags = "菜单浏览接口")
+public class MenuController {
+    @Autowired
+    private MenuSnapshot menuSnapshot;
+
+    /**
+     * 查询完整菜单，包含分类、菜品及口味、套餐
+     * 菜单未变化时返回304，已序列化的菜单直接写入响应，不经过消息转换器
+     * @param ifNoneMatch
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping
+    @ApiOperation("查询完整菜单")
+    public void menu(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                     HttpServletResponse response) throws IOException {
+        MenuSnapshot.Snapshot snapshot = menuSnapshot.get();
+        response.setHeader(HttpHeaders.ETAG, snapshot.getEtag());
+        // 客户端每次都需要校验版本
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (notModified(ifNoneMatch, snapshot.getEtag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        log.info("查询完整菜单，版本:{}", snapshot.getVersion());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(snapshot.getBody().length);
+        response.getOutputStream().write(snapshot.getBody());
+    }
+
+    private boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,11 +1,11 @@
 package com.sky.controller.user;
 
+import com.sky.cache.ShopStatusCache;
 import com.sky.result.Result;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.web.bind.annotation.*;
 
 @RestController("userShopController")
@@ -13,13 +13,13 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 @Api(tags = "店铺相关接口")
 public class ShopController {
-    public static  final  String KEY="SHOP_STATUS";
+    public static  final  String KEY=ShopStatusCache.KEY;
     @Autowired
-    private RedisTemplate redisTemplate;
+    private ShopStatusCache shopStatusCache;
     @GetMapping("/status")
     @ApiOperation("获取营业状态")
     public Result<Integer>getStatus(){
-        Integer status = (Integer) redisTemplate.opsForValue().get(KEY);
+        Integer status = shopStatusCache.getStatus();
         log.info("获取店铺状态:{}",status==1?"营业中":"打烊中");
         return Result.success(status);
     }
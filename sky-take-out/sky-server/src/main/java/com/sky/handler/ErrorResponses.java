@@ -0,0 +1,132 @@
+package com.sky.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.config.JacksonMappers;
+import com.sky.constant.MessageConstant;
+import com.sky.enumeration.ErrorCode;
+import com.sky.result.Result;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预先序列化的错误响应
+ * MessageConstant中的每条提示信息在启动时按JSON、CBOR、Smile各序列化一次，业务异常直接写出缓存的字节
+ * 响应格式按请求的Accept头选择，与正常响应的内容协商一致，使用与消息转换器相同的映射器
+ */
+@Component
+@Slf4j
+public class ErrorResponses {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * 错误响应支持的格式
+     */
+    private enum Format {
+        JSON(MediaType.APPLICATION_JSON),
+        CBOR(MediaType.APPLICATION_CBOR),
+        SMILE(APPLICATION_SMILE);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+    }
+
+    @Autowired
+    private JacksonMappers jacksonMappers;
+    private final Map<Format, ObjectMapper> mappers = new EnumMap<>(Format.class);
+    // 格式 -> 提示信息 -> 序列化后的 Result.error
+    private final Map<Format, Map<String, byte[]>> bodies = new EnumMap<>(Format.class);
+
+    @PostConstruct
+    public void init() {
+        mappers.put(Format.JSON, jacksonMappers.getJson());
+        mappers.put(Format.CBOR, jacksonMappers.getCbor());
+        mappers.put(Format.SMILE, jacksonMappers.getSmile());
+        for (Format format : Format.values()) {
+            Map<String, byte[]> map = new HashMap<>();
+            for (Field field : MessageConstant.class.getFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                    try {
+                        String msg = (String) field.get(null);
+                        if (format == Format.JSON && ErrorCode.codeOf(msg) == ErrorCode.GENERIC) {
+                            log.warn("提示信息没有对应的错误码:{}", field.getName());
+                        }
+                        map.put(msg, serialize(format, msg));
+                    } catch (IllegalAccessException | JsonProcessingException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+            bodies.put(format, Collections.unmodifiableMap(map));
+        }
+    }
+
+    /**
+     * 写出错误响应，非MessageConstant中的提示信息即时序列化
+     * @param request 按Accept头选择响应格式
+     * @param response
+     * @param status http状态码
+     * @param msg 提示信息
+     * @throws IOException
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, int status, String msg)
+            throws IOException {
+        Format format = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        byte[] body = msg == null ? null : bodies.get(format).get(msg);
+        if (body == null) {
+            body = serialize(format, msg);
+        }
+        response.setStatus(status);
+        response.setContentType(format.mediaType.toString());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * 按质量因子选择客户端接受的第一个格式，没有声明二进制格式时直接使用JSON，不解析Accept头
+     */
+    private Format negotiate(String accept) {
+        if (accept == null || (!accept.contains("cbor") && !accept.contains("smile"))) {
+            return Format.JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return Format.JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            for (Format format : Format.values()) {
+                if (mediaType.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return Format.JSON;
+    }
+
+    private byte[] serialize(Format format, String msg) throws JsonProcessingException {
+        return mappers.get(format).writeValueAsBytes(Result.error(msg));
+    }
+}
@@ -1,12 +1,19 @@
 package com.sky.handler;
 
 import com.sky.constant.MessageConstant;
+import com.sky.enumeration.ErrorCode;
 import com.sky.exception.BaseException;
+import com.sky.exception.RateLimitException;
+import com.sky.exception.ServiceBusyException;
 import com.sky.result.Result;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.sql.SQLIntegrityConstraintViolationException;
 
 /**
@@ -16,15 +23,47 @@ import java.sql.SQLIntegrityConstraintViolationException;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    @Autowired
+    private ErrorResponses errorResponses;
+
     /**
-     * 捕获业务异常
+     * 捕获业务异常，直接写出预先序列化的响应
      * @param ex
-     * @return
+     * @param request
+     * @param response
+     * @throws IOException
      */
     @ExceptionHandler
-    public Result exceptionHandler(BaseException ex){
+    public void exceptionHandler(BaseException ex, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
         log.error("异常信息：{}", ex.getMessage());
-        return Result.error(ex.getMessage());
+        errorResponses.write(request, response, HttpServletResponse.SC_OK, ex.getMessage());
+    }
+    /**
+     * 捕获服务繁忙异常，响应503状态码，客户端可稍后重试
+     * @param ex
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    @ExceptionHandler
+    public void exceptionHandler(ServiceBusyException ex, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        log.warn("服务繁忙：{}", ex.getMessage());
+        errorResponses.write(request, response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+    /**
+     * 捕获限流异常，响应429状态码
+     * @param ex
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    @ExceptionHandler
+    public void exceptionHandler(RateLimitException ex, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        log.warn("请求过于频繁：{}", ex.getMessage());
+        errorResponses.write(request, response, 429, ex.getMessage());
     }
     /**
      * 捕获SQL完整性约束异常
@@ -41,7 +80,7 @@ public class GlobalExceptionHandler {
             String[] split = message.split(" ");
             String username = split[2];
             String msg= username+ MessageConstant.ALREADY_EXISTS;
-            return Result.error(msg);
+            return Result.error(ErrorCode.ALREADY_EXISTS.getCode(), msg);
         }else{
             return Result.error(MessageConstant.UNKNOWN_ERROR);
         }
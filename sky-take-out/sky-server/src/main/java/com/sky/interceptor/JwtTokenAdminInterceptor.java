@@ -1,15 +1,15 @@
 package com.sky.interceptor;
 
-import com.sky.constant.JwtClaimsConstant;
+import com.sky.cache.EmployeeStatusCache;
+import com.sky.cache.JwtClaimsCache;
+import com.sky.cache.TokenRevocationStore;
 import com.sky.context.BaseContext;
 import com.sky.properties.JwtProperties;
-import com.sky.utils.JwtUtil;
-import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -18,10 +18,16 @@ import javax.servlet.http.HttpServletResponse;
  */
 @Component
 @Slf4j
-public class JwtTokenAdminInterceptor implements HandlerInterceptor {
+public class JwtTokenAdminInterceptor implements AsyncHandlerInterceptor {
 
     @Autowired
     private JwtProperties jwtProperties;
+    @Autowired
+    private JwtClaimsCache jwtClaimsCache;
+    @Autowired
+    private EmployeeStatusCache employeeStatusCache;
+    @Autowired
+    private TokenRevocationStore tokenRevocationStore;
 
     /**
      * 校验jwt
@@ -45,8 +51,18 @@ public class JwtTokenAdminInterceptor implements HandlerInterceptor {
         //2、校验令牌
         try {
             log.info("jwt校验:{}", token);
-            Claims claims = JwtUtil.parseJWT(jwtProperties.getAdminSecretKey(), token);
-            Long empId = Long.valueOf(claims.get(JwtClaimsConstant.EMP_ID).toString());
+            // 同一个令牌只在第一次请求时校验签名，之后直接使用缓存的员工id
+            Long empId = jwtClaimsCache.verifyAdmin(token);
+            if (tokenRevocationStore.isRevoked(token)) {
+                //令牌已退出登录
+                response.setStatus(401);
+                return false;
+            }
+            if (!employeeStatusCache.isEnabled(empId)) {
+                //账号已禁用，令牌未过期也不能继续使用
+                response.setStatus(401);
+                return false;
+            }
             log.info("当前员工id：", empId);
             // 将员工id存入ThreadLocal中，方便后续使用
             BaseContext.setCurrentId(empId);
@@ -59,4 +75,29 @@ public class JwtTokenAdminInterceptor implements HandlerInterceptor {
             return false;
         }
     }
+
+    /**
+     * 请求结束后清理当前员工id，避免线程池中的线程把员工id带到下一个请求
+     *
+     * @param request
+     * @param response
+     * @param handler
+     * @param ex
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        BaseContext.removeCurrentId();
+    }
+
+    /**
+     * 请求转为异步处理后同样清理，异步处理完成再次分派时会重新校验
+     *
+     * @param request
+     * @param response
+     * @param handler
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        BaseContext.removeCurrentId();
+    }
 }
@@ -0,0 +1,139 @@
+package com.sky.limit;
+
+import com.sky.constant.MessageConstant;
+import com.sky.enumeration.RequestPriority;
+import com.sky.handler.ErrorResponses;
+import com.sky.properties.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 自适应并发限制过滤器
+ * 并发数达到根据响应时间计算的上限时，按优先级先拒绝低优先级请求，响应503和Retry-After
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ConcurrencyLimitProperties concurrencyLimitProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ErrorResponses errorResponses;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<RequestPriority, Counter> shedCounters = new EnumMap<>(RequestPriority.class);
+    private GradientLimit limit;
+
+    @PostConstruct
+    public void init() {
+        limit = new GradientLimit(concurrencyLimitProperties.getInitialLimit(),
+                concurrencyLimitProperties.getMinLimit(), concurrencyLimitProperties.getMaxLimit());
+        Gauge.builder("concurrency.limit", limit, GradientLimit::getLimit).register(meterRegistry);
+        Gauge.builder("concurrency.inflight", limit, GradientLimit::getInFlight).register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            shedCounters.put(priority, Counter.builder("concurrency.shed")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // 健康检查等监控请求不受限制
+        return !concurrencyLimitProperties.isEnabled() || pathMatcher.match("/actuator/**", path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestPriority priority = priority(path(request));
+        if (!limit.tryAcquire(priority.getShare())) {
+            shedCounters.get(priority).increment();
+            reject(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start);
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // 异步请求在处理完成后释放
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        release.run();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        release.run();
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        release.run();
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    /**
+     * 按配置的路径模式确定请求优先级，多个模式匹配时取最精确的
+     */
+    private RequestPriority priority(String path) {
+        Comparator<String> comparator = pathMatcher.getPatternComparator(path);
+        String best = null;
+        for (String pattern : concurrencyLimitProperties.getPriorities().keySet()) {
+            if (pathMatcher.match(pattern, path) && (best == null || comparator.compare(pattern, best) < 0)) {
+                best = pattern;
+            }
+        }
+        return best == null ? concurrencyLimitProperties.getDefaultPriority()
+                : concurrencyLimitProperties.getPriorities().get(best);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(concurrencyLimitProperties.getRetryAfter()));
+        errorResponses.write(request, response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, MessageConstant.SERVICE_BUSY);
+    }
+
+    private String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
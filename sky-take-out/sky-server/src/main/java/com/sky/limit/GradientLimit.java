@@ -0,0 +1,86 @@
+package com.sky.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 根据响应时间变化自适应调整的并发上限(梯度算法)
+ * 近期响应时间与长期基准相比变慢时按比例降低上限，响应时间平稳时逐步提高上限
+ */
+public class GradientLimit {
+
+    // 近期、长期响应时间的平滑系数，约等于最近10次、100次请求的平均值
+    private static final double SHORT_ALPHA = 0.1;
+    private static final double LONG_ALPHA = 0.01;
+    // 响应时间不超过基准的1.5倍时不降低上限
+    private static final double TOLERANCE = 1.5;
+    // 每次调整只向新上限移动20%，避免上限剧烈抖动
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * 申请执行，当前并发数达到可用额度时返回false
+     * @param share 可以使用的额度比例
+     * @return
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 请求结束，释放并发额度并根据响应时间调整上限
+     * @param rttNanos 请求耗时(纳秒)
+     */
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        onSample(rttNanos, current);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtRelease) {
+        double rtt = rttNanos;
+        shortRtt = shortRtt == 0 ? rtt : shortRtt * (1 - SHORT_ALPHA) + rtt * SHORT_ALPHA;
+        longRtt = longRtt == 0 ? rtt : longRtt * (1 - LONG_ALPHA) + rtt * LONG_ALPHA;
+        // 长期基准远高于近期值时(例如刚经历过慢请求)，让基准更快回落
+        if (longRtt > shortRtt * 2) {
+            longRtt *= 0.95;
+        }
+        // 并发数不到上限一半时，响应时间不能反映容量，不调整
+        if (inFlightAtRelease < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        // 平方根作为允许排队的余量，使上限在响应平稳时可以继续增长
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -5,9 +5,11 @@ import com.sky.annotation.AutoFill;
 import com.sky.enumeration.OperationType;
 import com.sky.dto.CategoryPageQueryDTO;
 import com.sky.entity.Category;
+import com.sky.result.PageCursor;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import java.util.List;
 
 @Mapper
@@ -25,10 +27,21 @@ public interface CategoryMapper {
 
     /**
      * 分页查询
-     * @param categoryPageQueryDTO
+     * @param query
+     * @param columns 查询列，由服务端按fields生成，为null时查询全部列
      * @return
      */
-    Page<Category> pageQuery(CategoryPageQueryDTO categoryPageQueryDTO);
+    Page<Category> pageQuery(@Param("query") CategoryPageQueryDTO query, @Param("columns") String columns);
+
+    /**
+     * 游标分页查询，按创建时间、id倒序
+     * @param query
+     * @param columns 查询列，由服务端按fields生成，为null时查询全部列
+     * @param cursor 上一页最后一条记录的位置，为null时查询第一页
+     * @param limit
+     * @return
+     */
+    List<Category> pageQueryByCursor(@Param("query") CategoryPageQueryDTO query, @Param("columns") String columns, @Param("cursor") PageCursor cursor, @Param("limit") int limit);
 
     /**
      * 根据id删除分类
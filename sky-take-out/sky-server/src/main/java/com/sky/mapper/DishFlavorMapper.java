@@ -30,6 +30,16 @@ public interface DishFlavorMapper {
      * @param dishIds
      */
     void deleteByDishIds(List<Long> dishIds);
+    /**
+     * 根据口味id集合 批量删除口味数据
+     * @param ids
+     */
+    void deleteByIds(List<Long> ids);
+    /**
+     * 根据口味id 批量修改口味数据的值
+     * @param flavors
+     */
+    void updateValueBatch(List<DishFlavor> flavors);
     /**
      * 根据id查询菜品
      * @param dishId
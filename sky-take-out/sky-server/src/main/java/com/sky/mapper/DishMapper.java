@@ -5,9 +5,11 @@ import com.sky.annotation.AutoFill;
 import com.sky.dto.DishPageQueryDTO;
 import com.sky.entity.Dish;
 import com.sky.enumeration.OperationType;
+import com.sky.result.PageCursor;
 import com.sky.vo.DishVO;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
 import java.util.List;
@@ -32,15 +34,37 @@ public interface DishMapper {
 
     /**
      * 分页查询菜品
-     * @param dishPageQueryDTO
+     * @param query
+     * @param columns 查询列，由服务端按fields生成，为null时查询全部列
      * @return
      */
-    Page<DishVO> pageQuery(DishPageQueryDTO dishPageQueryDTO);
+    Page<DishVO> pageQuery(@Param("query") DishPageQueryDTO query, @Param("columns") String columns);
+    /**
+     * 游标分页查询，按创建时间、id倒序
+     * @param query
+     * @param columns 查询列，由服务端按fields生成，为null时查询全部列
+     * @param cursor 上一页最后一条记录的位置，为null时查询第一页
+     * @param limit
+     * @return
+     */
+    List<DishVO> pageQueryByCursor(@Param("query") DishPageQueryDTO query, @Param("columns") String columns, @Param("cursor") PageCursor cursor, @Param("limit") int limit);
     /**
      * 根据id查询菜品
      */
     @Select("select * from dish where id = #{id}")
     Dish getById(Long id);
+    /**
+     * 根据id集合查询菜品
+     * @param ids
+     * @return
+     */
+    List<Dish> getByIds(List<Long> ids);
+    /**
+     * 查询全部菜品的id和名称，用于构建名称索引
+     * @return
+     */
+    @Select("select id, name from dish")
+    List<Dish> listNames();
 
     /**
      * 根据id删除菜品数据
@@ -67,4 +91,23 @@ public interface DishMapper {
      * @return
      */
     List<Dish> list(Dish dish);
+    /**
+     * 动态查询菜品及口味，一次关联查询
+     * @param dish
+     * @return
+     */
+    List<DishVO> listWithFlavor(Dish dish);
+    /**
+     * 根据菜品id集合查询菜品及口味，一次关联查询
+     * @param ids
+     * @return
+     */
+    List<DishVO> getByIdsWithFlavor(List<Long> ids);
+    /**
+     * 查询一个或多个套餐内指定状态的菜品
+     * @param setmealIds
+     * @param status
+     * @return
+     */
+    List<Dish> getBySetmealIdsAndStatus(@Param("setmealIds") List<Long> setmealIds, @Param("status") Integer status);
 }
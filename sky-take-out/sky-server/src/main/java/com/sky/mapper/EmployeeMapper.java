@@ -5,10 +5,14 @@ import com.sky.annotation.AutoFill;
 import com.sky.dto.EmployeePageQueryDTO;
 import com.sky.entity.Employee;
 import com.sky.enumeration.OperationType;
+import com.sky.result.PageCursor;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.List;
+
 @Mapper
 public interface EmployeeMapper {
 
@@ -34,10 +38,20 @@ public interface EmployeeMapper {
     void insert(Employee employee);
     /**
      * 分页查询员工
-     * @param employeePageQueryDTO
+     * @param query
+     * @param columns 查询列，由服务端按fields生成，为null时查询全部列
+     * @return
+     */
+    Page<Employee> pageQuery(@Param("query") EmployeePageQueryDTO query, @Param("columns") String columns);
+    /**
+     * 游标分页查询，按创建时间、id倒序
+     * @param query
+     * @param columns 查询列，由服务端按fields生成，为null时查询全部列
+     * @param cursor 上一页最后一条记录的位置，为null时查询第一页
+     * @param limit
      * @return
      */
-    Page<Employee> pageQuery(EmployeePageQueryDTO employeePageQueryDTO);
+    List<Employee> pageQueryByCursor(@Param("query") EmployeePageQueryDTO query, @Param("columns") String columns, @Param("cursor") PageCursor cursor, @Param("limit") int limit);
 
     /**
      * 根据id查询员工
@@ -53,4 +67,10 @@ public interface EmployeeMapper {
      */
     @Select("select * from employee where id = #{id}")
     Employee getById(Long id);
+    /**
+     * 查询全部员工的id和账号状态
+     * @return
+     */
+    @Select("select id, status from employee")
+    List<Employee> listStatus();
 }
@@ -27,6 +27,16 @@ public interface SetmealDishMapper {
      * @param setmealIds
      */
     void deleteBySetmealId(List<Long> setmealIds);
+    /**
+     * 根据id集合 批量删除套餐菜品关系数据
+     * @param ids
+     */
+    void deleteByIds(List<Long> ids);
+    /**
+     * 根据id 批量修改套餐菜品关系数据
+     * @param setmealDishes
+     */
+    void updateBatch(List<SetmealDish> setmealDishes);
     /**
      * 根据套餐id查询套餐菜品关系数据
      * @param setmealId
@@ -34,4 +44,10 @@ public interface SetmealDishMapper {
      */
     @Select("select * from setmeal_dish where setmeal_id = #{setmealId}")
     List<SetmealDish> getBySetmealId(Long setmealId);
+    /**
+     * 根据套餐id集合查询套餐菜品关系数据
+     * @param setmealIds
+     * @return
+     */
+    List<SetmealDish> getBySetmealIds(List<Long> setmealIds);
 }
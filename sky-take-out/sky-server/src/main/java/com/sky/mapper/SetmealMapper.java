@@ -5,8 +5,10 @@ import com.sky.annotation.AutoFill;
 import com.sky.dto.SetmealPageQueryDTO;
 import com.sky.entity.Setmeal;
 import com.sky.enumeration.OperationType;
+import com.sky.result.PageCursor;
 import com.sky.vo.SetmealVO;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
 import java.util.List;
@@ -30,10 +32,20 @@ public interface SetmealMapper {
 
     /**
      * 套餐分页查询
-     * @param setmealPageQueryDTO
+     * @param query
+     * @param columns 查询列，由服务端按fields生成，为null时查询全部列
      * @return
      */
-    Page<SetmealVO> pageQuery(SetmealPageQueryDTO setmealPageQueryDTO);
+    Page<SetmealVO> pageQuery(@Param("query") SetmealPageQueryDTO query, @Param("columns") String columns);
+    /**
+     * 游标分页查询，按创建时间、id倒序
+     * @param query
+     * @param columns 查询列，由服务端按fields生成，为null时查询全部列
+     * @param cursor 上一页最后一条记录的位置，为null时查询第一页
+     * @param limit
+     * @return
+     */
+    List<SetmealVO> pageQueryByCursor(@Param("query") SetmealPageQueryDTO query, @Param("columns") String columns, @Param("cursor") PageCursor cursor, @Param("limit") int limit);
 
     /**
      * 根据套餐id获取套餐
@@ -42,6 +54,32 @@ public interface SetmealMapper {
      */
     @Select("select  * from setmeal where id=#{id}")
     Setmeal getById(Long id);
+    /**
+     * 根据id集合查询套餐
+     * @param ids
+     * @return
+     */
+    List<Setmeal> getByIds(List<Long> ids);
+    /**
+     * 查询全部套餐的id和名称，用于构建名称索引
+     * @return
+     */
+    @Select("select id, name from setmeal")
+    List<Setmeal> listNames();
+    /**
+     * 根据状态查询套餐
+     * @param status
+     * @return
+     */
+    @Select("select * from setmeal where status = #{status} order by create_time desc, id desc")
+    List<SetmealVO> listByStatus(Integer status);
+    /**
+     * 根据id集合统计指定状态的套餐数量
+     * @param ids
+     * @param status
+     * @return
+     */
+    Integer countByIdsAndStatus(@Param("ids") List<Long> ids, @Param("status") Integer status);
 
     /**
      * 批量删除 套餐数据
@@ -55,4 +93,11 @@ public interface SetmealMapper {
      */
     @AutoFill(value = OperationType.UPDATE)
     void update(Setmeal setmeal);
+    /**
+     * 根据id集合批量修改套餐状态
+     * @param setmeal 携带状态及修改人、修改时间
+     * @param ids
+     */
+    @AutoFill(value = OperationType.UPDATE)
+    void updateStatusByIds(@Param("setmeal") Setmeal setmeal, @Param("ids") List<Long> ids);
 }
@@ -0,0 +1,16 @@
+package com.sky.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+@Mapper
+public interface TableStatsMapper {
+
+    /**
+     * 根据表的统计信息估算记录数，不执行count
+     * @param tableName
+     * @return
+     */
+    @Select("select table_rows from information_schema.tables where table_schema = database() and table_name = #{tableName}")
+    Long estimateRows(String tableName);
+}
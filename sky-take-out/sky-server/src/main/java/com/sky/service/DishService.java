@@ -35,6 +35,12 @@ public interface DishService {
      * @return
      */
     DishVO getByIdWithFlavor(Long id);
+    /**
+     * 根据id集合批量查询菜品及口味
+     * @param ids
+     * @return
+     */
+    List<DishVO> getByIdsWithFlavor(List<Long> ids);
     /**
      * 根据id修改菜品的基本信息和口味信息
      * @param dishDTO
@@ -47,6 +53,12 @@ public interface DishService {
      * @return
      */
     List<Dish> getDishByCategoryId(Long categoryId);
+    /**
+     * 根据分类id查询起售中的菜品及口味(用户端)
+     * @param categoryId
+     * @return
+     */
+    List<DishVO> listWithFlavor(Long categoryId);
     /**
      * 起售、停售菜品
      * @param status
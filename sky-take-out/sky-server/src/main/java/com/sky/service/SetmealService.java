@@ -45,4 +45,11 @@ public interface SetmealService {
      * @return
      */
     void startOrStop(Integer status, Long id);
+    /**
+     * 批量起售、停售套餐
+     * @param status
+     * @param ids
+     * @return
+     */
+    void startOrStopBatch(Integer status, List<Long> ids);
 }
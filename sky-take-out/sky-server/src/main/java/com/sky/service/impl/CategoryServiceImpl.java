@@ -1,17 +1,24 @@
 package com.sky.service.impl;
 
+import com.github.pagehelper.ISelect;
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.CategoryCache;
+import com.sky.cache.MenuSnapshot;
+import com.sky.cache.PageTotalCache;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
 import com.sky.context.BaseContext;
 import com.sky.dto.CategoryDTO;
 import com.sky.dto.CategoryPageQueryDTO;
 import com.sky.entity.Category;
+import com.sky.enumeration.CountMode;
 import com.sky.exception.DeletionNotAllowedException;
 import com.sky.mapper.CategoryMapper;
 import com.sky.mapper.DishMapper;
 import com.sky.mapper.SetmealMapper;
+import com.sky.result.PageCursor;
+import com.sky.result.PageFields;
 import com.sky.result.PageResult;
 import com.sky.service.CategoryService;
 import lombok.extern.slf4j.Slf4j;
@@ -28,12 +35,30 @@ import java.util.List;
 @Slf4j
 public class CategoryServiceImpl implements CategoryService {
 
+    // 分页查询可以选择的字段
+    private static final PageFields PAGE_FIELDS = new PageFields(Category.class, "id", "createTime")
+            .column("id", "id")
+            .column("type", "type")
+            .column("name", "name")
+            .column("sort", "sort")
+            .column("status", "status")
+            .column("createTime", "create_time")
+            .column("updateTime", "update_time")
+            .column("createUser", "create_user")
+            .column("updateUser", "update_user");
+
     @Autowired
     private CategoryMapper categoryMapper;
     @Autowired
     private DishMapper dishMapper;
     @Autowired
     private SetmealMapper setmealMapper;
+    @Autowired
+    private PageTotalCache pageTotalCache;
+    @Autowired
+    private MenuSnapshot menuSnapshot;
+    @Autowired
+    private CategoryCache categoryCache;
 
     /**
      * 新增分类
@@ -48,6 +73,10 @@ public class CategoryServiceImpl implements CategoryService {
         category.setStatus(StatusConstant.DISABLE);
 
         categoryMapper.insert(category);
+        // 菜单版本号递增
+        menuSnapshot.changed();
+        // 重新加载分类
+        categoryCache.changed();
     }
 
     /**
@@ -56,10 +85,38 @@ public class CategoryServiceImpl implements CategoryService {
      * @return
      */
     public PageResult pageQuery(CategoryPageQueryDTO categoryPageQueryDTO) {
-        PageHelper.startPage(categoryPageQueryDTO.getPage(),categoryPageQueryDTO.getPageSize());
+        PageFields.Selection selection = PAGE_FIELDS.select(categoryPageQueryDTO.getFields());
+        String columns = selection.getColumns();
+        CountMode countMode = CountMode.of(categoryPageQueryDTO.getCountMode());
+        ISelect countSelect = () -> categoryMapper.pageQuery(categoryPageQueryDTO, columns);
+        String filter = countFilter(categoryPageQueryDTO);
+        if (categoryPageQueryDTO.getCursor() != null) {
+            //游标分页按创建时间倒序，多查一条用于判断是否还有下一页
+            int pageSize = Math.max(categoryPageQueryDTO.getPageSize(), 1);
+            PageCursor cursor = PageCursor.decode(categoryPageQueryDTO.getCursor());
+            List<Category> rows = categoryMapper.pageQueryByCursor(categoryPageQueryDTO, columns, cursor, pageSize + 1);
+            long total = pageTotalCache.total(countMode, "category", filter, countSelect);
+            return selection.apply(PageCursor.toPageResult(rows, pageSize, total, Category::getCreateTime, Category::getId));
+        }
+        boolean exactCount = countMode == CountMode.EXACT;
+        PageHelper.startPage(categoryPageQueryDTO.getPage(),categoryPageQueryDTO.getPageSize(),exactCount);
         //下一条sql进行分页，自动加入limit关键字分页
-        Page<Category> page = categoryMapper.pageQuery(categoryPageQueryDTO);
-        return new PageResult(page.getTotal(), page.getResult());
+        Page<Category> page = categoryMapper.pageQuery(categoryPageQueryDTO, columns);
+        long total = exactCount ? page.getTotal() : pageTotalCache.total(countMode, "category", filter, countSelect);
+        return selection.apply(new PageResult(total, page.getResult()));
+    }
+
+    /**
+     * 分页查询的过滤条件，用于缓存总记录数，无过滤条件时返回null
+     * @param categoryPageQueryDTO
+     * @return
+     */
+    private String countFilter(CategoryPageQueryDTO categoryPageQueryDTO) {
+        String name = categoryPageQueryDTO.getName();
+        if ((name == null || name.isEmpty()) && categoryPageQueryDTO.getType() == null) {
+            return null;
+        }
+        return name + "," + categoryPageQueryDTO.getType();
     }
 
     /**
@@ -83,6 +140,10 @@ public class CategoryServiceImpl implements CategoryService {
 
         //删除分类数据
         categoryMapper.deleteById(id);
+        // 菜单版本号递增
+        menuSnapshot.changed();
+        // 重新加载分类
+        categoryCache.changed();
     }
 
     /**
@@ -94,6 +155,10 @@ public class CategoryServiceImpl implements CategoryService {
         BeanUtils.copyProperties(categoryDTO,category);
 
         categoryMapper.update(category);
+        // 菜单版本号递增
+        menuSnapshot.changed();
+        // 重新加载分类
+        categoryCache.changed();
     }
 
     /**
@@ -107,6 +172,10 @@ public class CategoryServiceImpl implements CategoryService {
                 .status(status)
                 .build();
         categoryMapper.update(category);
+        // 菜单版本号递增
+        menuSnapshot.changed();
+        // 重新加载分类
+        categoryCache.changed();
     }
 
     /**
@@ -115,6 +184,7 @@ public class CategoryServiceImpl implements CategoryService {
      * @return
      */
     public List<Category> list(Integer type) {
-        return categoryMapper.list(type);
+        // 分类很少修改，直接返回本地副本
+        return categoryCache.list(type);
     }
 }
@@ -1,38 +1,75 @@
 package com.sky.service.impl;
 
+import com.github.pagehelper.ISelect;
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.CatalogNameIndex;
+import com.sky.cache.DishCache;
+import com.sky.cache.MenuSnapshot;
+import com.sky.cache.PageTotalCache;
+import com.sky.constant.BatchConstant;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
 import com.sky.dto.DishDTO;
 import com.sky.dto.DishPageQueryDTO;
 import com.sky.entity.Dish;
 import com.sky.entity.DishFlavor;
+import com.sky.enumeration.CountMode;
 import com.sky.exception.DeletionNotAllowedException;
 import com.sky.mapper.DishFlavorMapper;
 import com.sky.mapper.DishMapper;
 import com.sky.mapper.SetmealDishMapper;
+import com.sky.result.PageCursor;
+import com.sky.result.PageFields;
 import com.sky.result.PageResult;
 import com.sky.service.DishService;
 import com.sky.vo.DishVO;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @Service
 @Slf4j
 public class DishServiceImpl implements DishService {
+    // 分页查询可以选择的字段
+    private static final PageFields PAGE_FIELDS = new PageFields(DishVO.class, "id", "createTime")
+            .column("id", "d.id")
+            .column("name", "d.name")
+            .column("categoryId", "d.category_id")
+            .column("price", "d.price")
+            .column("image", "d.image")
+            .column("description", "d.description")
+            .column("status", "d.status")
+            .column("createTime", "d.create_time")
+            .column("updateTime", "d.update_time")
+            .column("categoryName", "c.name as category_name");
     @Autowired
     private DishMapper dishMapper;
     @Autowired
     private DishFlavorMapper dishFlavorMapper;
     @Autowired
     private SetmealDishMapper setmealDishMapper;
+    @Autowired
+    private DishCache dishCache;
+    @Autowired
+    private PageTotalCache pageTotalCache;
+    @Autowired
+    private CatalogNameIndex catalogNameIndex;
+    @Autowired
+    private MenuSnapshot menuSnapshot;
 
     /**
      * 新增菜品和对应口味
@@ -63,6 +100,12 @@ public class DishServiceImpl implements DishService {
             // 向口味表批量插入n条数据
             dishFlavorMapper.insertBatch(flavors);
         }
+        // 清理菜品所属分类的缓存
+        dishCache.evict(dish.getCategoryId());
+        // 刷新名称索引
+        catalogNameIndex.dishChanged(Collections.singletonList(dishId));
+        // 菜单版本号递增
+        menuSnapshot.changed();
     }
     /**
      * 菜品分页查询
@@ -71,12 +114,57 @@ public class DishServiceImpl implements DishService {
      * @return
      */
      public PageResult pageQuery(DishPageQueryDTO dishPageQueryDTO) {
-         PageHelper.startPage(dishPageQueryDTO.getPage(), dishPageQueryDTO.getPageSize());
-         Page<DishVO> page = dishMapper.pageQuery(dishPageQueryDTO);
-          return new PageResult(
-                 page.getTotal(),
-                 page.getResult());
+         PageFields.Selection selection = PAGE_FIELDS.select(dishPageQueryDTO.getFields());
+         String columns = selection.getColumns();
+         applyNameIndex(dishPageQueryDTO);
+         CountMode countMode = CountMode.of(dishPageQueryDTO.getCountMode());
+         ISelect countSelect = () -> dishMapper.pageQuery(dishPageQueryDTO, columns);
+         String filter = countFilter(dishPageQueryDTO);
+         if (dishPageQueryDTO.getCursor() != null) {
+             // 游标分页，多查一条用于判断是否还有下一页
+             int pageSize = Math.max(dishPageQueryDTO.getPageSize(), 1);
+             PageCursor cursor = PageCursor.decode(dishPageQueryDTO.getCursor());
+             List<DishVO> rows = dishMapper.pageQueryByCursor(dishPageQueryDTO, columns, cursor, pageSize + 1);
+             long total = pageTotalCache.total(countMode, "dish", filter, countSelect);
+             return selection.apply(PageCursor.toPageResult(rows, pageSize, total, DishVO::getCreateTime, DishVO::getId));
+         }
+         boolean exactCount = countMode == CountMode.EXACT;
+         PageHelper.startPage(dishPageQueryDTO.getPage(), dishPageQueryDTO.getPageSize(), exactCount);
+         Page<DishVO> page = dishMapper.pageQuery(dishPageQueryDTO, columns);
+         return selection.apply(new PageResult(
+                 exactCount ? page.getTotal() : pageTotalCache.total(countMode, "dish", filter, countSelect),
+                 page.getResult()));
      }
+
+    /**
+     * 有名称条件时先查名称索引，匹配数量不多时用id条件替代模糊查询
+     * @param dishPageQueryDTO
+     */
+    private void applyNameIndex(DishPageQueryDTO dishPageQueryDTO) {
+        dishPageQueryDTO.setIds(null);
+        String name = dishPageQueryDTO.getName();
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        List<Long> ids = catalogNameIndex.searchDish(name);
+        // 索引未命中时可能是刚新增的记录还未同步到本节点，仍按名称模糊查询，不直接返回空结果
+        if (!ids.isEmpty() && ids.size() <= BatchConstant.MAX_IN_SIZE) {
+            dishPageQueryDTO.setIds(ids);
+        }
+    }
+
+    /**
+     * 分页查询的过滤条件，用于缓存总记录数，无过滤条件时返回null
+     * @param dishPageQueryDTO
+     * @return
+     */
+    private String countFilter(DishPageQueryDTO dishPageQueryDTO) {
+        if (dishPageQueryDTO.getName() == null && dishPageQueryDTO.getCategoryId() == null
+                && dishPageQueryDTO.getStatus() == null) {
+            return null;
+        }
+        return dishPageQueryDTO.getName() + "," + dishPageQueryDTO.getCategoryId() + "," + dishPageQueryDTO.getStatus();
+    }
     /**
      * 批量删除菜品
      * @param ids
@@ -85,31 +173,40 @@ public class DishServiceImpl implements DishService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void deleteBatch(List<Long> ids) {
-        //1. 判断当前菜品是否能够删除-是否存在启售中
-        for (Long id : ids) {
-            Dish dish=dishMapper.getById(id);
-            if(Objects.equals(dish.getStatus(), StatusConstant.ENABLE)){
-                // 处于启售中，不能删除
-                throw  new DeletionNotAllowedException(MessageConstant.DISH_ON_SALE);
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        // id数量过多时分批执行，避免in条件过长
+        List<List<Long>> batches = ListUtils.partition(ids, BatchConstant.MAX_IN_SIZE);
+        Set<Long> categoryIds = new HashSet<>();
+        for (List<Long> batch : batches) {
+            //1. 判断当前菜品是否能够删除-是否存在启售中，不存在的id直接忽略
+            for (Dish dish : dishMapper.getByIds(batch)) {
+                if(Objects.equals(dish.getStatus(), StatusConstant.ENABLE)){
+                    // 处于启售中，不能删除
+                    throw  new DeletionNotAllowedException(MessageConstant.DISH_ON_SALE);
+                }
+                categoryIds.add(dish.getCategoryId());
+            }
+            //2. 是否被套餐关联
+            List<Long>setmealIds=setmealDishMapper.getSetmealIdsByDishIds(batch);
+            if(setmealIds != null && !setmealIds.isEmpty()){
+                // 被套餐关联，不能删除
+                throw  new DeletionNotAllowedException(MessageConstant.DISH_BE_RELATED_BY_SETMEAL);
             }
         }
-        //2. 是否被套餐关联
-        List<Long>setmealIds=setmealDishMapper.getSetmealIdsByDishIds(ids);
-         if(setmealIds != null && !setmealIds.isEmpty()){
-            // 处于启售中，不能删除
-            throw  new DeletionNotAllowedException(MessageConstant.DISH_BE_RELATED_BY_SETMEAL);
+        for (List<Long> batch : batches) {
+            //3. 根据菜品id批量删除菜品数据
+            dishMapper.deleteByIds(batch);
+            //4. 根据菜品id批量删除关联的口味数据
+            dishFlavorMapper.deleteByDishIds(batch);
         }
-        //3. 删除菜品表中的数据
-//        for (Long id : ids) {
-//            dishMapper.deleteById(id);
-//            //4. 删除菜品关联的口味数据
-//            dishFlavorMapper.deleteByDishId(id);
-//        }
-
-        // 根据菜品id批量删除菜品数据
-        dishMapper.deleteByIds(ids);
-        // 根据菜品id批量删除关联的口味数据
-        dishFlavorMapper.deleteByDishIds(ids);
+        // 清理被删除菜品所属分类的缓存
+        dishCache.evict(categoryIds);
+        // 从名称索引中移除
+        catalogNameIndex.dishChanged(ids);
+        // 菜单版本号递增
+        menuSnapshot.changed();
     }
     /**
      * 根据id查询菜品
@@ -118,17 +215,21 @@ public class DishServiceImpl implements DishService {
      */
     @Override
     public DishVO getByIdWithFlavor(Long id) {
-        // 根据菜品id查询菜品数据
-        Dish dish = dishMapper.getById(id);
-        // 根据菜品id查询口味数据
-        List<DishFlavor>dishFlavors=dishFlavorMapper.getByDishId(id);
-        // 将查询到的数据封装到dishVO中
-        DishVO dishVO=new DishVO();
-        //属性拷贝
-        BeanUtils.copyProperties(dish,dishVO);
-        // 设置口味数据
-        dishVO.setFlavors(dishFlavors);
-        return dishVO;
+        // 一次关联查询菜品及口味数据
+        List<DishVO> dishVOList = getByIdsWithFlavor(Collections.singletonList(id));
+        return dishVOList.isEmpty() ? null : dishVOList.get(0);
+    }
+    /**
+     * 根据id集合批量查询菜品及口味
+     * @param ids
+     * @return
+     */
+    @Override
+    public List<DishVO> getByIdsWithFlavor(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return dishMapper.getByIdsWithFlavor(ids);
     }
 
     /**
@@ -137,26 +238,68 @@ public class DishServiceImpl implements DishService {
      * @return
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void updateWithFlavor(DishDTO dishDTO) {
+        // 修改前的分类，菜品可能被移动到其他分类
+        Dish original = dishMapper.getById(dishDTO.getId());
         //修改基本信息
         Dish dish=new Dish();
         BeanUtils.copyProperties(dishDTO,dish);
         dishMapper.update(dish);
-        //删除原有的口味信息
-        Long dishId=dishDTO.getId();
-        dishFlavorMapper.deleteByDishId(dishId);
-        // 拿到口味数组
-        List<DishFlavor> flavors = dishDTO.getFlavors();
-        if (flavors != null && !flavors.isEmpty()) {
-            // 遍历 flavors
-            flavors.forEach(
-                    (flavor) -> {
-                        // 设置口味的菜品id
-                        flavor.setDishId(dishId);
-                    }
-            );
-            // 向口味表批量插入n条数据
-            dishFlavorMapper.insertBatch(flavors);
+        //只对有变化的口味做增删改，口味未变化时不执行任何语句
+        syncFlavors(dishDTO.getId(), dishDTO.getFlavors());
+        // 清理修改前后所属分类的缓存
+        Set<Long> categoryIds = new HashSet<>();
+        if (original != null) {
+            categoryIds.add(original.getCategoryId());
+        }
+        categoryIds.add(dishDTO.getCategoryId());
+        dishCache.evict(categoryIds);
+        // 刷新名称索引
+        catalogNameIndex.dishChanged(Collections.singletonList(dishDTO.getId()));
+        // 菜单版本号递增
+        menuSnapshot.changed();
+    }
+    /**
+     * 比对数据库中的口味和提交的口味，按口味名称匹配
+     * 新增的批量插入，值变化的批量修改，不再存在的批量删除
+     * @param dishId
+     * @param flavors
+     */
+    private void syncFlavors(Long dishId, List<DishFlavor> flavors) {
+        // 按名称分组的原有口味，同名口味按顺序依次匹配
+        Map<String, LinkedList<DishFlavor>> storedByName = new HashMap<>();
+        for (DishFlavor stored : dishFlavorMapper.getByDishId(dishId)) {
+            storedByName.computeIfAbsent(stored.getName(), name -> new LinkedList<>()).add(stored);
+        }
+        List<DishFlavor> toInsert = new ArrayList<>();
+        List<DishFlavor> toUpdate = new ArrayList<>();
+        if (flavors != null) {
+            for (DishFlavor flavor : flavors) {
+                LinkedList<DishFlavor> sameName = storedByName.get(flavor.getName());
+                DishFlavor stored = sameName == null ? null : sameName.poll();
+                if (stored == null) {
+                    flavor.setId(null);
+                    flavor.setDishId(dishId);
+                    toInsert.add(flavor);
+                } else if (!Objects.equals(stored.getValue(), flavor.getValue())) {
+                    stored.setValue(flavor.getValue());
+                    toUpdate.add(stored);
+                }
+            }
+        }
+        // 没有被匹配到的原有口味需要删除
+        List<Long> toDelete = new ArrayList<>();
+        storedByName.values().forEach(rest -> rest.forEach(stored -> toDelete.add(stored.getId())));
+
+        if (!toDelete.isEmpty()) {
+            dishFlavorMapper.deleteByIds(toDelete);
+        }
+        if (!toUpdate.isEmpty()) {
+            dishFlavorMapper.updateValueBatch(toUpdate);
+        }
+        if (!toInsert.isEmpty()) {
+            dishFlavorMapper.insertBatch(toInsert);
         }
     }
     /**
@@ -170,6 +313,27 @@ public class DishServiceImpl implements DishService {
                 .status( StatusConstant.ENABLE).build();
          return dishMapper.list(dish);
     }
+    /**
+     * 根据分类id查询起售中的菜品及口味(用户端)
+     * 优先从缓存中获取
+     * @param categoryId
+     * @return
+     */
+    @Override
+    public List<DishVO> listWithFlavor(Long categoryId) {
+        return dishCache.get(categoryId, this::loadWithFlavor);
+    }
+
+    /**
+     * 从数据库查询起售中的菜品及口味，一次关联查询
+     * @param categoryId
+     * @return
+     */
+    private List<DishVO> loadWithFlavor(Long categoryId) {
+        Dish dish = Dish.builder().categoryId(categoryId)
+                .status(StatusConstant.ENABLE).build();
+        return dishMapper.listWithFlavor(dish);
+    }
     /**
      * 起售、停售菜品
      * @param status
@@ -185,5 +349,9 @@ public class DishServiceImpl implements DishService {
         }
         dish.setStatus(status);
         dishMapper.update(dish);
+        // 清理菜品所属分类的缓存
+        dishCache.evict(dish.getCategoryId());
+        // 菜单版本号递增
+        menuSnapshot.changed();
     }
 }
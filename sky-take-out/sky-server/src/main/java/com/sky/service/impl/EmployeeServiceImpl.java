@@ -1,7 +1,10 @@
 package com.sky.service.impl;
 
+import com.github.pagehelper.ISelect;
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.EmployeeStatusCache;
+import com.sky.cache.PageTotalCache;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.PasswordConstant;
 import com.sky.constant.StatusConstant;
@@ -10,10 +13,13 @@ import com.sky.dto.EmployeeDTO;
 import com.sky.dto.EmployeeLoginDTO;
 import com.sky.dto.EmployeePageQueryDTO;
 import com.sky.entity.Employee;
+import com.sky.enumeration.CountMode;
 import com.sky.exception.AccountLockedException;
 import com.sky.exception.AccountNotFoundException;
 import com.sky.exception.PasswordErrorException;
 import com.sky.mapper.EmployeeMapper;
+import com.sky.result.PageCursor;
+import com.sky.result.PageFields;
 import com.sky.result.PageResult;
 import com.sky.service.EmployeeService;
 import org.apache.commons.collections4.BagUtils;
@@ -28,8 +34,26 @@ import java.util.List;
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
+    // 分页查询可以选择的字段，密码不在其中
+    private static final PageFields PAGE_FIELDS = new PageFields(Employee.class, "id", "createTime")
+            .column("id", "id")
+            .column("username", "username")
+            .column("name", "name")
+            .column("phone", "phone")
+            .column("sex", "sex")
+            .column("idNumber", "id_number")
+            .column("status", "status")
+            .column("createTime", "create_time")
+            .column("updateTime", "update_time")
+            .column("createUser", "create_user")
+            .column("updateUser", "update_user");
+
     @Autowired
     private EmployeeMapper employeeMapper;
+    @Autowired
+    private PageTotalCache pageTotalCache;
+    @Autowired
+    private EmployeeStatusCache employeeStatusCache;
 
     /**
      * 员工登录
@@ -92,17 +116,35 @@ public class EmployeeServiceImpl implements EmployeeService {
      */
     @Override
     public PageResult pageQuery(EmployeePageQueryDTO employeePageQueryDTO) {
-        // 1、开始分页查询，获取分页参数
+        PageFields.Selection selection = PAGE_FIELDS.select(employeePageQueryDTO.getFields());
+        String columns = selection.getColumns();
+        CountMode countMode = CountMode.of(employeePageQueryDTO.getCountMode());
+        ISelect countSelect = () -> employeeMapper.pageQuery(employeePageQueryDTO, columns);
+        String name = employeePageQueryDTO.getName();
+        // 过滤条件，用于缓存总记录数
+        String filter = name == null || name.isEmpty() ? null : name;
+        if (employeePageQueryDTO.getCursor() != null) {
+            // 游标分页，多查一条用于判断是否还有下一页
+            int pageSize = Math.max(employeePageQueryDTO.getPageSize(), 1);
+            PageCursor cursor = PageCursor.decode(employeePageQueryDTO.getCursor());
+            List<Employee> rows = employeeMapper.pageQueryByCursor(employeePageQueryDTO, columns, cursor, pageSize + 1);
+            long total = pageTotalCache.total(countMode, "employee", filter, countSelect);
+            return selection.apply(PageCursor.toPageResult(rows, pageSize, total, Employee::getCreateTime, Employee::getId));
+        }
+        // 1、开始分页查询，获取分页参数，非精确统计时不执行count
+        boolean exactCount = countMode == CountMode.EXACT;
         PageHelper.startPage(
                 employeePageQueryDTO.getPage(),
-                employeePageQueryDTO.getPageSize()
+                employeePageQueryDTO.getPageSize(),
+                exactCount
         );
         // 2、mapper执行分页查询
-        Page<Employee> page =employeeMapper.pageQuery(employeePageQueryDTO);
+        Page<Employee> page =employeeMapper.pageQuery(employeePageQueryDTO, columns);
         // 3、封装分页结果
-        long total = page.getTotal();
+        long total = exactCount ? page.getTotal()
+                : pageTotalCache.total(countMode, "employee", filter, countSelect);
         List<Employee> records = page.getResult();
-        return new PageResult(total,records);
+        return selection.apply(new PageResult(total,records));
     }
     /**
      * 启用或禁用员工账号
@@ -117,6 +159,8 @@ public class EmployeeServiceImpl implements EmployeeService {
                 .id(id)
                 .build();
         employeeMapper.update(employee);
+        // 刷新账号状态缓存，禁用立即生效
+        employeeStatusCache.changed(id);
     }
     /**
      * 根据id查询员工
@@ -143,5 +187,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         BeanUtils.copyProperties(employeeDTO,employee);
         //2、调用mapper保存
         employeeMapper.update(employee);
+        // 刷新账号状态缓存
+        employeeStatusCache.changed(employee.getId());
     }
 }
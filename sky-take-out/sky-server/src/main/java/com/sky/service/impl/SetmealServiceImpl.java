@@ -1,37 +1,71 @@
 package com.sky.service.impl;
 
+import com.github.pagehelper.ISelect;
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.CatalogNameIndex;
+import com.sky.cache.MenuSnapshot;
+import com.sky.cache.PageTotalCache;
+import com.sky.constant.BatchConstant;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
 import com.sky.dto.SetmealDTO;
 import com.sky.dto.SetmealPageQueryDTO;
 import com.sky.entity.Setmeal;
+import com.sky.entity.Dish;
 import com.sky.entity.SetmealDish;
+import com.sky.enumeration.CountMode;
 import com.sky.exception.DeletionNotAllowedException;
+import com.sky.exception.SetmealEnableFailedException;
 import com.sky.mapper.DishMapper;
 import com.sky.mapper.SetmealDishMapper;
 import com.sky.mapper.SetmealMapper;
+import com.sky.result.PageCursor;
+import com.sky.result.PageFields;
 import com.sky.result.PageResult;
 import com.sky.service.SetmealService;
 import com.sky.vo.SetmealVO;
+import org.apache.commons.collections4.ListUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Service
 public class SetmealServiceImpl implements SetmealService {
+    // 分页查询可以选择的字段
+    private static final PageFields PAGE_FIELDS = new PageFields(SetmealVO.class, "id", "createTime")
+            .column("id", "s.id")
+            .column("categoryId", "s.category_id")
+            .column("name", "s.name")
+            .column("price", "s.price")
+            .column("status", "s.status")
+            .column("description", "s.description")
+            .column("image", "s.image")
+            .column("createTime", "s.create_time")
+            .column("updateTime", "s.update_time")
+            .column("categoryName", "c.name as category_name");
     @Autowired
     private SetmealMapper setmealMapper;
     @Autowired
      private SetmealDishMapper setmealDishMapper;
     @Autowired
     private DishMapper dishMapper;
+    @Autowired
+    private PageTotalCache pageTotalCache;
+    @Autowired
+    private CatalogNameIndex catalogNameIndex;
+    @Autowired
+    private MenuSnapshot menuSnapshot;
     /**
      *  新增套餐
      * @param setmealDTO
@@ -50,6 +84,10 @@ public class SetmealServiceImpl implements SetmealService {
         });
         //套餐菜品关系表 批量插入
         setmealDishMapper.insertBatch(setmealDishes);
+        // 刷新名称索引
+        catalogNameIndex.setmealChanged(Collections.singletonList(setmealId));
+        // 菜单版本号递增
+        menuSnapshot.changed();
     }
     /**
      * 套餐分页查询
@@ -58,16 +96,61 @@ public class SetmealServiceImpl implements SetmealService {
      */
     @Override
     public PageResult pageQuery(SetmealPageQueryDTO setmealPageQueryDTO) {
+        PageFields.Selection selection = PAGE_FIELDS.select(setmealPageQueryDTO.getFields());
+        String columns = selection.getColumns();
+        applyNameIndex(setmealPageQueryDTO);
         int pageNum = setmealPageQueryDTO.getPage();
         int pageSize= setmealPageQueryDTO.getPageSize();
-        //开启分页查询
-        PageHelper.startPage(pageNum,pageSize);
+        CountMode countMode = CountMode.of(setmealPageQueryDTO.getCountMode());
+        ISelect countSelect = () -> setmealMapper.pageQuery(setmealPageQueryDTO, columns);
+        String filter = countFilter(setmealPageQueryDTO);
+        if (setmealPageQueryDTO.getCursor() != null) {
+            // 游标分页，多查一条用于判断是否还有下一页
+            pageSize = Math.max(pageSize, 1);
+            PageCursor cursor = PageCursor.decode(setmealPageQueryDTO.getCursor());
+            List<SetmealVO> rows = setmealMapper.pageQueryByCursor(setmealPageQueryDTO, columns, cursor, pageSize + 1);
+            long total = pageTotalCache.total(countMode, "setmeal", filter, countSelect);
+            return selection.apply(PageCursor.toPageResult(rows, pageSize, total, SetmealVO::getCreateTime, SetmealVO::getId));
+        }
+        //开启分页查询，非精确统计时不执行count
+        boolean exactCount = countMode == CountMode.EXACT;
+        PageHelper.startPage(pageNum,pageSize,exactCount);
         //查询套餐
-         Page<SetmealVO> page = setmealMapper.pageQuery(setmealPageQueryDTO);
-         //封装pageResult 返回
-        return new PageResult(
-                page.getTotal(),
-                page.getResult());
+        Page<SetmealVO> page = setmealMapper.pageQuery(setmealPageQueryDTO, columns);
+        //封装pageResult 返回
+        return selection.apply(new PageResult(
+                exactCount ? page.getTotal() : pageTotalCache.total(countMode, "setmeal", filter, countSelect),
+                page.getResult()));
+    }
+
+    /**
+     * 有名称条件时先查名称索引，匹配数量不多时用id条件替代模糊查询
+     * @param setmealPageQueryDTO
+     */
+    private void applyNameIndex(SetmealPageQueryDTO setmealPageQueryDTO) {
+        setmealPageQueryDTO.setIds(null);
+        String name = setmealPageQueryDTO.getName();
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        List<Long> ids = catalogNameIndex.searchSetmeal(name);
+        // 索引未命中时可能是刚新增的记录还未同步到本节点，仍按名称模糊查询，不直接返回空结果
+        if (!ids.isEmpty() && ids.size() <= BatchConstant.MAX_IN_SIZE) {
+            setmealPageQueryDTO.setIds(ids);
+        }
+    }
+
+    /**
+     * 分页查询的过滤条件，用于缓存总记录数，无过滤条件时返回null
+     * @param setmealPageQueryDTO
+     * @return
+     */
+    private String countFilter(SetmealPageQueryDTO setmealPageQueryDTO) {
+        if (setmealPageQueryDTO.getName() == null && setmealPageQueryDTO.getCategoryId() == null
+                && setmealPageQueryDTO.getStatus() == null) {
+            return null;
+        }
+        return setmealPageQueryDTO.getName() + "," + setmealPageQueryDTO.getCategoryId() + "," + setmealPageQueryDTO.getStatus();
     }
     /**
      * 批量删除套餐
@@ -77,17 +160,27 @@ public class SetmealServiceImpl implements SetmealService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void deleteBatch(List<Long> ids) {
-        // 1. 套餐是否启售
-        for(Long id:ids){
-            Setmeal setmeal=setmealMapper.getById(id);
-            if(Objects.equals(setmeal.getStatus(), StatusConstant.ENABLE)){
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        // id数量过多时分批执行，避免in条件过长
+        List<List<Long>> batches = ListUtils.partition(ids, BatchConstant.MAX_IN_SIZE);
+        // 1. 套餐是否启售，每批只统计一次
+        for (List<Long> batch : batches) {
+            if(setmealMapper.countByIdsAndStatus(batch, StatusConstant.ENABLE) > 0){
                 throw new DeletionNotAllowedException(MessageConstant.SETMEAL_ON_SALE);
             }
         }
-        // 2. 删除套餐表中的数据
-        setmealMapper.deleteBatch(ids);
-        // 3. 删除套餐和菜品的关联数据
-        setmealDishMapper.deleteBySetmealId(ids);
+        for (List<Long> batch : batches) {
+            // 2. 删除套餐表中的数据
+            setmealMapper.deleteBatch(batch);
+            // 3. 删除套餐和菜品的关联数据
+            setmealDishMapper.deleteBySetmealId(batch);
+        }
+        // 从名称索引中移除
+        catalogNameIndex.setmealChanged(ids);
+        // 菜单版本号递增
+        menuSnapshot.changed();
     }
     /**
      * 根据id查询套餐及对应菜品 用于修改时数据回显
@@ -118,16 +211,68 @@ public class SetmealServiceImpl implements SetmealService {
         Setmeal setmeal=new Setmeal();
         BeanUtils.copyProperties(setmealDTO,setmeal);
         setmealMapper.update(setmeal);
-        // 2. 删除套餐原有 对应的菜品数据
-        Long setmealId=setmealDTO.getId();
-        setmealDishMapper.deleteBySetmealId(Collections.singletonList(setmealId));
-        // 3. 添加新的菜品数据 到 套餐菜品关系表
-        List<SetmealDish> setmealDishes=setmealDTO.getSetmealDishes();
-        //为菜品设置套餐id
-        setmealDishes.forEach( setmealDish -> {
-            setmealDish.setSetmealId(setmealId);
-        });
-        setmealDishMapper.insertBatch(setmealDishes);
+        // 2. 只对有变化的套餐菜品关系做增删改，未变化时不执行任何语句
+        syncSetmealDishes(setmealDTO.getId(), setmealDTO.getSetmealDishes());
+        // 刷新名称索引
+        catalogNameIndex.setmealChanged(Collections.singletonList(setmealDTO.getId()));
+        // 菜单版本号递增
+        menuSnapshot.changed();
+    }
+    /**
+     * 比对数据库中的套餐菜品关系和提交的数据，按菜品id匹配
+     * 新增的批量插入，名称、价格、份数变化的批量修改，不再存在的批量删除
+     * @param setmealId
+     * @param setmealDishes
+     */
+    private void syncSetmealDishes(Long setmealId, List<SetmealDish> setmealDishes) {
+        // 按菜品id分组的原有关系，同一菜品出现多次时按顺序依次匹配
+        Map<Long, LinkedList<SetmealDish>> storedByDishId = new HashMap<>();
+        for (SetmealDish stored : setmealDishMapper.getBySetmealId(setmealId)) {
+            storedByDishId.computeIfAbsent(stored.getDishId(), dishId -> new LinkedList<>()).add(stored);
+        }
+        List<SetmealDish> toInsert = new ArrayList<>();
+        List<SetmealDish> toUpdate = new ArrayList<>();
+        if (setmealDishes != null) {
+            for (SetmealDish setmealDish : setmealDishes) {
+                LinkedList<SetmealDish> sameDish = storedByDishId.get(setmealDish.getDishId());
+                SetmealDish stored = sameDish == null ? null : sameDish.poll();
+                if (stored == null) {
+                    setmealDish.setId(null);
+                    setmealDish.setSetmealId(setmealId);
+                    toInsert.add(setmealDish);
+                } else if (!Objects.equals(stored.getName(), setmealDish.getName())
+                        || !samePrice(stored.getPrice(), setmealDish.getPrice())
+                        || !Objects.equals(stored.getCopies(), setmealDish.getCopies())) {
+                    stored.setName(setmealDish.getName());
+                    stored.setPrice(setmealDish.getPrice());
+                    stored.setCopies(setmealDish.getCopies());
+                    toUpdate.add(stored);
+                }
+            }
+        }
+        // 没有被匹配到的原有关系需要删除
+        List<Long> toDelete = new ArrayList<>();
+        storedByDishId.values().forEach(rest -> rest.forEach(stored -> toDelete.add(stored.getId())));
+
+        if (!toDelete.isEmpty()) {
+            setmealDishMapper.deleteByIds(toDelete);
+        }
+        if (!toUpdate.isEmpty()) {
+            setmealDishMapper.updateBatch(toUpdate);
+        }
+        if (!toInsert.isEmpty()) {
+            setmealDishMapper.insertBatch(toInsert);
+        }
+    }
+
+    /**
+     * 比较价格，忽略小数位数的差异(12 与 12.00 视为相同)
+     */
+    private boolean samePrice(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.compareTo(b) == 0;
     }
     /**
      * 起售、停售套餐
@@ -136,25 +281,36 @@ public class SetmealServiceImpl implements SetmealService {
      * @return
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void startOrStop(Integer status, Long id) {
-
-        // 1. 启售套餐时，获取套餐内的菜品，判断是否停售
+        // 通过this调用不经过代理，批量方法上的事务注解不生效，需要在这里声明事务
+        startOrStopBatch(status, Collections.singletonList(id));
+    }
+    /**
+     * 批量起售、停售套餐
+     * 无论套餐数量多少，只查询一次停售菜品、执行一次修改
+     * @param status
+     * @param ids
+     * @return
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void startOrStopBatch(Integer status, List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        // 1. 启售套餐时，一次查出这些套餐内的停售菜品
         if(Objects.equals(status, StatusConstant.ENABLE)){
-            List<SetmealDish>setmealDishes=setmealDishMapper.getBySetmealId(id);
-            if(setmealDishes != null && !setmealDishes.isEmpty()){
+            List<Dish> disabledDishes = dishMapper.getBySetmealIdsAndStatus(ids, StatusConstant.DISABLE);
+            if(!disabledDishes.isEmpty()){
                 // 套餐内的菜品存在停售菜品，则不能启售套餐
-                setmealDishes.forEach(setmealDish -> {
-                    Long dishId = setmealDish.getDishId();
-                    Integer dishStatus = dishMapper.getById(dishId).getStatus();
-                    if(Objects.equals(dishStatus, StatusConstant.DISABLE)){
-                        throw new DeletionNotAllowedException(MessageConstant.SETMEAL_ENABLE_FAILED);
-                    }
-                });
+                throw new SetmealEnableFailedException(MessageConstant.SETMEAL_ENABLE_FAILED);
             }
         }
-        //  2. 套餐状态修改
-        Setmeal setmeal=setmealMapper.getById(id);
-        setmeal.setStatus(status);
-        setmealMapper.update(setmeal);
+        //  2. 批量修改套餐状态
+        Setmeal setmeal = Setmeal.builder().status(status).build();
+        setmealMapper.updateStatusByIds(setmeal, ids);
+        // 菜单版本号递增
+        menuSnapshot.changed();
     }
 }
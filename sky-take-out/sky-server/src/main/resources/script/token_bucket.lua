@@ -0,0 +1,35 @@
+-- 令牌桶限流，原子地补充令牌并尝试取出一个
+-- KEYS[1] 令牌桶key
+-- ARGV[1] 每秒生成的令牌数
+-- ARGV[2] 令牌桶容量
+-- 返回0表示获取成功，否则返回需要等待的毫秒数
+redis.replicate_commands()
+
+local key = KEYS[1]
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', key, 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+end
+
+tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)
+
+local wait = 0
+if tokens >= 1 then
+    tokens = tokens - 1
+else
+    wait = math.ceil((1 - tokens) * 1000 / rate)
+end
+
+redis.call('HMSET', key, 'tokens', tostring(tokens), 'ts', tostring(now))
+-- 令牌桶补满所需时间后过期
+redis.call('PEXPIRE', key, math.ceil(capacity * 1000 / rate) + 1000)
+return wait
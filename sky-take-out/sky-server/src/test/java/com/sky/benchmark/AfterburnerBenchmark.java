@@ -0,0 +1,93 @@
+package com.sky.benchmark;
+
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.sky.entity.SetmealDish;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.result.PageResult;
+import com.sky.result.Result;
+import com.sky.vo.DishVO;
+import com.sky.vo.SetmealVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Afterburner模块对响应序列化的影响：plain 为 JacksonObjectMapper 本身，afterburner 为再注册 AfterburnerModule
+ * 序列化接口实际返回的 Result 包装：菜品分页(每页10条)、套餐详情、错误响应
+ * jdk 17上两者的差异在误差范围内(生成的访问类不能定义在实体类的类加载器中，退回反射)，映射器因此不再注册Afterburner
+ *
+ * 运行方式见 DishFlavorBenchmark，类名换成 AfterburnerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AfterburnerBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"plain", "afterburner"})
+    public String mapper;
+
+    private JacksonObjectMapper objectMapper;
+    private Result<PageResult> pageResult;
+    private Result<SetmealVO> setmealVO;
+    private Result<?> error;
+
+    @Setup
+    public void setup() {
+        objectMapper = new JacksonObjectMapper();
+        if ("afterburner".equals(mapper)) {
+            objectMapper.registerModule(new AfterburnerModule());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<DishVO> records = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            records.add(DishVO.builder().id(id).name("菜品" + id).categoryId(1L).price(new BigDecimal("38.00"))
+                    .image("https://sky-take-out.oss/dish-" + id + ".png").description("招牌菜品，选用当日新鲜食材")
+                    .status(1).createTime(now).updateTime(now).categoryName("热销菜品").build());
+        }
+        pageResult = Result.success(new PageResult(200, records));
+        List<SetmealDish> setmealDishes = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            setmealDishes.add(SetmealDish.builder().id(id).setmealId(1L).dishId(id).name("菜品" + id)
+                    .price(new BigDecimal("38.00")).copies(1).build());
+        }
+        setmealVO = Result.success(SetmealVO.builder().id(1L).categoryId(2L).name("双人套餐")
+                .price(new BigDecimal("88.00")).status(1).description("两荤一素，含两份米饭")
+                .image("https://sky-take-out.oss/setmeal-1.png").createTime(now).updateTime(now)
+                .categoryName("人气套餐").setmealDishes(setmealDishes).build());
+        error = Result.error("密码错误");
+    }
+
+    @Benchmark
+    public byte[] pageResult() throws Exception {
+        return objectMapper.writeValueAsBytes(pageResult);
+    }
+
+    @Benchmark
+    public byte[] setmealVO() throws Exception {
+        return objectMapper.writeValueAsBytes(setmealVO);
+    }
+
+    @Benchmark
+    public byte[] error() throws Exception {
+        return objectMapper.writeValueAsBytes(error);
+    }
+}
@@ -0,0 +1,155 @@
+package com.sky.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.sky.annotation.AutoFill;
+import com.sky.aspect.AutoFillAspect;
+import com.sky.constant.AutoFillConstant;
+import com.sky.context.BaseContext;
+import com.sky.entity.Employee;
+import com.sky.enumeration.OperationType;
+import com.sky.mapper.EmployeeMapper;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公共字段自动填充每次调用的开销：
+ * 每次调用 getDeclaredMethod 查找setter再反射调用(优化前) 与 按类缓存MethodHandle(优化后) 的对比
+ * 两者使用同一个JoinPoint实现，日志级别与线上一致(INFO)
+ *
+ * 运行方式见 DishFlavorBenchmark，类名换成 AutoFillBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AutoFillBenchmark {
+
+    @Param({"insert", "update"})
+    public String operation;
+
+    private final AutoFillAspect aspect = new AutoFillAspect();
+    private final Employee employee = new Employee();
+    private JoinPoint joinPoint;
+
+    @Setup
+    public void setup() throws Exception {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        BaseContext.setCurrentId(1L);
+        Method method = "insert".equals(operation)
+                ? EmployeeMapper.class.getMethod("insert", Employee.class)
+                : EmployeeMapper.class.getMethod("update", Employee.class);
+        joinPoint = joinPoint(method, new Object[]{employee});
+
+        reflective(joinPoint);
+        if (employee.getUpdateUser() == null) {
+            throw new IllegalStateException("优化前实现未填充公共字段");
+        }
+        employee.setUpdateUser(null);
+        aspect.autoFillBefore(joinPoint);
+        if (employee.getUpdateUser() == null) {
+            throw new IllegalStateException("优化后实现未填充公共字段");
+        }
+    }
+
+    /**
+     * 优化前：每次调用查找setter并反射调用(去掉了原来每次调用输出的info日志)
+     */
+    @Benchmark
+    public Employee reflective() {
+        reflective(joinPoint);
+        return employee;
+    }
+
+    /**
+     * 优化后：按实体类缓存的MethodHandle
+     */
+    @Benchmark
+    public Employee methodHandle() {
+        aspect.autoFillBefore(joinPoint);
+        return employee;
+    }
+
+    /**
+     * 优化前的 AutoFillAspect.autoFillBefore
+     */
+    private static void reflective(JoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        AutoFill autoFill = signature.getMethod().getAnnotation(AutoFill.class);
+        OperationType operationType = autoFill.value();
+        Object[] args = joinPoint.getArgs();
+        if (args == null || args.length == 0) {
+            return;
+        }
+        Object entity = args[0];
+        LocalDateTime now = LocalDateTime.now();
+        Long currentId = BaseContext.getCurrentId();
+        if (operationType == OperationType.INSERT) {
+            try {
+                Method setCreateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_CREATE_TIME, LocalDateTime.class);
+                Method setUpdateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_TIME, LocalDateTime.class);
+                Method setCreateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_CREATE_USER, Long.class);
+                Method setUpdateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_USER, Long.class);
+                setCreateTime.invoke(entity, now);
+                setUpdateTime.invoke(entity, now);
+                setCreateUser.invoke(entity, currentId);
+                setUpdateUser.invoke(entity, currentId);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        } else if (operationType == OperationType.UPDATE) {
+            try {
+                Method setUpdateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_TIME, LocalDateTime.class);
+                Method setUpdateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_USER, Long.class);
+                setUpdateTime.invoke(entity, now);
+                setUpdateUser.invoke(entity, currentId);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 只实现切面用到的 getSignature、getArgs、getMethod
+     */
+    private static JoinPoint joinPoint(Method method, Object[] args) {
+        MethodSignature signature = (MethodSignature) Proxy.newProxyInstance(
+                AutoFillBenchmark.class.getClassLoader(), new Class<?>[]{MethodSignature.class},
+                (proxy, m, a) -> {
+                    if ("getMethod".equals(m.getName())) {
+                        return method;
+                    }
+                    throw new UnsupportedOperationException(m.getName());
+                });
+        return (JoinPoint) Proxy.newProxyInstance(
+                AutoFillBenchmark.class.getClassLoader(), new Class<?>[]{JoinPoint.class},
+                (proxy, m, a) -> {
+                    if ("getSignature".equals(m.getName())) {
+                        return signature;
+                    }
+                    if ("getArgs".equals(m.getName())) {
+                        return args;
+                    }
+                    throw new UnsupportedOperationException(m.getName());
+                });
+    }
+}
@@ -0,0 +1,93 @@
+package com.sky.benchmark;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.tools.Server;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 基准测试使用的数据库
+ * h2以mysql兼容模式运行在本机tcp端口上，每条sql都经过一次本机网络往返，
+ * mybatis加载项目中的mapper文件，执行的sql与线上一致
+ */
+public class BenchmarkDatabase implements AutoCloseable {
+
+    private final Server server;
+    private final PooledDataSource dataSource;
+    private final SqlSessionFactory sqlSessionFactory;
+
+    /**
+     * @param mapperResources 需要加载的mapper文件，例如 mapper/DishMapper.xml
+     */
+    public BenchmarkDatabase(String... mapperResources) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:sky_take_out"
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+        dataSource = new PooledDataSource("org.h2.Driver", url, "sa", "");
+
+        Configuration configuration = new Configuration(
+                new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.getTypeAliasRegistry().registerAliases("com.sky.entity");
+        for (String resource : mapperResources) {
+            try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+                new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();
+            }
+        }
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        runScript("benchmark/schema.sql");
+    }
+
+    /**
+     * 执行classpath中的sql脚本
+     * @param resource
+     */
+    public void runScript(String resource) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Reader reader = Resources.getResourceAsReader(resource)) {
+            ScriptRunner runner = new ScriptRunner(connection);
+            runner.setLogWriter(null);
+            runner.setStopOnError(true);
+            runner.runScript(reader);
+        }
+    }
+
+    /**
+     * 获取数据库连接，用于批量准备数据
+     * @return
+     */
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /**
+     * 打开自动提交的会话，调用方负责关闭
+     * @return
+     */
+    public SqlSession openSession() {
+        return sqlSessionFactory.openSession(true);
+    }
+
+    @Override
+    public void close() {
+        dataSource.forceCloseAll();
+        server.stop();
+    }
+}
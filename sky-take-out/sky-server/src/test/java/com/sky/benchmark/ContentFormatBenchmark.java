@@ -0,0 +1,114 @@
+package com.sky.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sky.config.JacksonMappers;
+import com.sky.entity.DishFlavor;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.result.PageResult;
+import com.sky.result.Result;
+import com.sky.vo.DishVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应格式对比：JSON、CBOR、Smile 的响应体大小、序列化耗时和解析耗时
+ * pageResult 为管理端菜品分页(每页10条)，dishVO 为单个菜品详情，都包装在 Result 中，与接口实际返回一致
+ * 解析按客户端的方式读取为树结构，不绑定到具体类型；响应体字节数在setup中输出
+ *
+ * 运行方式见 DishFlavorBenchmark，类名换成 ContentFormatBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentFormatBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+    private static final String[][] FLAVORS = {
+            {"辣度", "[\"不辣\",\"微辣\",\"中辣\",\"重辣\"]"},
+            {"忌口", "[\"不要葱\",\"不要蒜\",\"不要香菜\",\"不要辣\"]"},
+            {"温度", "[\"热饮\",\"常温\",\"去冰\",\"少冰\",\"多冰\"]"}
+    };
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"pageResult", "dishVO"})
+    public String payload;
+
+    private JacksonObjectMapper objectMapper;
+    private Result<?> response;
+    private byte[] body;
+
+    @Setup
+    public void setup() throws Exception {
+        // 与WebMvcConfiguration中消息转换器使用的映射器一致
+        JacksonMappers jacksonMappers = new JacksonMappers();
+        if ("cbor".equals(format)) {
+            objectMapper = jacksonMappers.getCbor();
+        } else if ("smile".equals(format)) {
+            objectMapper = jacksonMappers.getSmile();
+        } else {
+            objectMapper = jacksonMappers.getJson();
+        }
+        if ("pageResult".equals(payload)) {
+            List<DishVO> records = new ArrayList<>();
+            for (long id = 1; id <= PAGE_SIZE; id++) {
+                DishVO dishVO = dish(id);
+                // 分页查询不返回口味
+                dishVO.setFlavors(null);
+                records.add(dishVO);
+            }
+            response = Result.success(new PageResult(200, records));
+        } else {
+            response = Result.success(dish(1L));
+        }
+        body = objectMapper.writeValueAsBytes(response);
+        // 输出只用ascii字符，避免fork出的jvm控制台编码不同导致乱码
+        System.out.println("format=" + format + " payload=" + payload + " size=" + body.length + "B");
+    }
+
+    /**
+     * 服务端序列化响应
+     */
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    /**
+     * 客户端解析响应
+     */
+    @Benchmark
+    public JsonNode parse() throws Exception {
+        return objectMapper.readTree(body);
+    }
+
+    private static DishVO dish(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        List<DishFlavor> flavors = new ArrayList<>();
+        for (String[] f : FLAVORS) {
+            flavors.add(DishFlavor.builder().id(id * 10 + flavors.size()).dishId(id).name(f[0]).value(f[1]).build());
+        }
+        return DishVO.builder().id(id).name("菜品" + id).categoryId(1L).price(new BigDecimal("38.00"))
+                .image("https://sky-take-out.oss/dish-" + id + ".png").description("招牌菜品，选用当日新鲜食材")
+                .status(1).createTime(now).updateTime(now).categoryName("热销菜品").flavors(flavors).build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.sky.benchmark;
+
+import com.sky.constant.StatusConstant;
+import com.sky.entity.Dish;
+import com.sky.mapper.DishFlavorMapper;
+import com.sky.mapper.DishMapper;
+import com.sky.vo.DishVO;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按分类查询起售菜品及口味：逐个菜品查询口味 与 一次关联查询 的对比
+ * 目标分类有200个菜品，每个菜品3种口味，库中另有19个分类各200个菜品
+ *
+ * 运行方式(在 sky-take-out 目录下)：
+ * mvn -q -pl sky-server -am test-compile dependency:build-classpath -Dmdep.outputFile=target/bench.cp -Dmdep.includeScope=test
+ * java -cp "sky-server/target/test-classes:sky-server/target/classes:sky-common/target/classes:sky-pojo/target/classes:$(cat sky-server/target/bench.cp)" org.openjdk.jmh.Main DishFlavorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DishFlavorBenchmark {
+
+    private static final int CATEGORIES = 20;
+    private static final int DISHES_PER_CATEGORY = 200;
+    private static final String[][] FLAVORS = {
+            {"辣度", "[\"不辣\",\"微辣\",\"中辣\",\"重辣\"]"},
+            {"忌口", "[\"不要葱\",\"不要蒜\",\"不要香菜\",\"不要辣\"]"},
+            {"温度", "[\"热饮\",\"常温\",\"去冰\",\"少冰\",\"多冰\"]"}
+    };
+
+    private BenchmarkDatabase database;
+    private final Dish query = Dish.builder().categoryId(1L).status(StatusConstant.ENABLE).build();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        database = new BenchmarkDatabase("mapper/DishMapper.xml", "mapper/DishFlavorMapper.xml");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (Connection connection = database.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement category = connection.prepareStatement(
+                    "insert into category (id, type, name, sort, status, create_time, update_time) values (?, 1, ?, ?, 1, ?, ?)");
+                 PreparedStatement dish = connection.prepareStatement(
+                         "insert into dish (id, name, category_id, price, image, description, status, create_time, update_time)"
+                                 + " values (?, ?, ?, 38.00, 'https://sky-take-out.oss/dish.png', '招牌菜品', 1, ?, ?)");
+                 PreparedStatement flavor = connection.prepareStatement(
+                         "insert into dish_flavor (dish_id, name, value) values (?, ?, ?)")) {
+                long dishId = 0;
+                for (int c = 1; c <= CATEGORIES; c++) {
+                    category.setLong(1, c);
+                    category.setString(2, "分类" + c);
+                    category.setInt(3, c);
+                    category.setTimestamp(4, now);
+                    category.setTimestamp(5, now);
+                    category.addBatch();
+                    for (int d = 0; d < DISHES_PER_CATEGORY; d++) {
+                        dishId++;
+                        dish.setLong(1, dishId);
+                        dish.setString(2, "菜品" + dishId);
+                        dish.setLong(3, c);
+                        dish.setTimestamp(4, now);
+                        dish.setTimestamp(5, now);
+                        dish.addBatch();
+                        for (String[] f : FLAVORS) {
+                            flavor.setLong(1, dishId);
+                            flavor.setString(2, f[0]);
+                            flavor.setString(3, f[1]);
+                            flavor.addBatch();
+                        }
+                    }
+                }
+                category.executeBatch();
+                dish.executeBatch();
+                flavor.executeBatch();
+            }
+            connection.commit();
+        }
+        // 两种方式的结果必须一致，对比才有意义
+        List<DishVO> expected = perDish();
+        List<DishVO> actual = joined();
+        if (expected.size() != DISHES_PER_CATEGORY || actual.size() != DISHES_PER_CATEGORY
+                || actual.stream().anyMatch(dishVO -> dishVO.getFlavors().size() != FLAVORS.length)) {
+            throw new IllegalStateException("查询结果不一致");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * 优化前：查询菜品后逐个菜品查询口味，共 1 + 200 条sql
+     */
+    @Benchmark
+    public List<DishVO> perDish() {
+        try (SqlSession session = database.openSession()) {
+            DishMapper dishMapper = session.getMapper(DishMapper.class);
+            DishFlavorMapper dishFlavorMapper = session.getMapper(DishFlavorMapper.class);
+            List<Dish> dishList = dishMapper.list(query);
+            List<DishVO> dishVOList = new ArrayList<>();
+            for (Dish d : dishList) {
+                DishVO dishVO = new DishVO();
+                BeanUtils.copyProperties(d, dishVO);
+                dishVO.setFlavors(dishFlavorMapper.getByDishId(d.getId()));
+                dishVOList.add(dishVO);
+            }
+            return dishVOList;
+        }
+    }
+
+    /**
+     * 优化后：一次关联查询菜品、分类和口味
+     */
+    @Benchmark
+    public List<DishVO> joined() {
+        try (SqlSession session = database.openSession()) {
+            return session.getMapper(DishMapper.class).listWithFlavor(query);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.sky.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.sky.config.JacksonMappers;
+import com.sky.dto.EmployeeLoginDTO;
+import com.sky.entity.Employee;
+import com.sky.exception.BaseException;
+import com.sky.handler.ErrorResponses;
+import com.sky.handler.GlobalExceptionHandler;
+import com.sky.mapper.EmployeeMapper;
+import com.sky.result.Result;
+import com.sky.service.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.DigestUtils;
+
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 错误路径的吞吐：同一账号连续输错密码
+ * 优化前：业务异常记录完整异常栈，异常处理器每次新建Result并序列化
+ * 优化后：业务异常不记录异常栈，异常处理器按Accept头写出预先序列化的错误响应
+ * 两者都在100层调用栈深处抛出异常(与经过过滤器、拦截器、切面后的Controller调用深度相当)，
+ * 异常处理器的error日志关闭，只比较异常和序列化的开销
+ *
+ * 运行方式见 DishFlavorBenchmark，类名换成 ErrorPathBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final int STACK_DEPTH = 100;
+
+    @Param({"application/json", "application/cbor"})
+    public String accept;
+
+    private final EmployeeServiceImpl employeeService = new EmployeeServiceImpl();
+    private final GlobalExceptionHandler globalExceptionHandler = new GlobalExceptionHandler();
+    private final JacksonMappers jacksonMappers = new JacksonMappers();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/admin/employee/login");
+    private final EmployeeLoginDTO wrongPassword = new EmployeeLoginDTO();
+
+    @Setup
+    public void setup() throws Exception {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        ((Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class)).setLevel(Level.OFF);
+        Employee admin = Employee.builder().id(1L).username("admin")
+                .password(DigestUtils.md5DigestAsHex("123456".getBytes())).status(1).build();
+        EmployeeMapper employeeMapper = (EmployeeMapper) Proxy.newProxyInstance(
+                ErrorPathBenchmark.class.getClassLoader(), new Class<?>[]{EmployeeMapper.class},
+                (proxy, method, args) -> {
+                    if ("getByUsername".equals(method.getName())) {
+                        return admin;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        ReflectionTestUtils.setField(employeeService, "employeeMapper", employeeMapper);
+
+        ErrorResponses errorResponses = new ErrorResponses();
+        ReflectionTestUtils.setField(errorResponses, "jacksonMappers", jacksonMappers);
+        errorResponses.init();
+        ReflectionTestUtils.setField(globalExceptionHandler, "errorResponses", errorResponses);
+
+        request.addHeader(HttpHeaders.ACCEPT, accept);
+        wrongPassword.setUsername("admin");
+        wrongPassword.setPassword("654321");
+        // 错误响应必须按Accept头协商格式，并带有错误码
+        MockHttpServletResponse response = stacklessAndCached();
+        if (!accept.equals(response.getContentType()) || response.getContentAsByteArray().length == 0) {
+            throw new IllegalStateException("错误响应格式不正确:" + response.getContentType());
+        }
+    }
+
+    /**
+     * 优化前：异常记录异常栈，新建Result并用JSON序列化(原来的异常处理器不区分Accept)
+     */
+    @Benchmark
+    public MockHttpServletResponse stackTraceAndSerialize() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            atDepth(STACK_DEPTH, () -> {
+                try {
+                    employeeService.login(wrongPassword);
+                } catch (BaseException e) {
+                    // 原来的BaseException构造时会填充异常栈
+                    throw new StackTraceException(e.getMessage());
+                }
+            });
+        } catch (StackTraceException e) {
+            byte[] body = jacksonMappers.getJson().writeValueAsBytes(Result.error(0, e.getMessage()));
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType("application/json");
+            response.getOutputStream().write(body);
+        }
+        return response;
+    }
+
+    /**
+     * 优化后：不记录异常栈的业务异常，写出预先序列化的响应
+     */
+    @Benchmark
+    public MockHttpServletResponse stacklessAndCached() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            atDepth(STACK_DEPTH, () -> employeeService.login(wrongPassword));
+        } catch (BaseException e) {
+            globalExceptionHandler.exceptionHandler(e, request, response);
+        }
+        return response;
+    }
+
+    private static void atDepth(int depth, Runnable task) {
+        if (depth == 0) {
+            task.run();
+            return;
+        }
+        atDepth(depth - 1, task);
+    }
+
+    /**
+     * 记录异常栈的异常，模拟原来的业务异常
+     */
+    private static class StackTraceException extends RuntimeException {
+        StackTraceException(String msg) {
+            super(msg);
+        }
+    }
+}
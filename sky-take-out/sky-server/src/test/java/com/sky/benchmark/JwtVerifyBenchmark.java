@@ -0,0 +1,91 @@
+package com.sky.benchmark;
+
+import com.sky.cache.JwtClaimsCache;
+import com.sky.constant.JwtClaimsConstant;
+import com.sky.properties.JwtProperties;
+import com.sky.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 管理端每个请求校验令牌的开销：
+ * 每次新建解析器并校验签名(优化前)、复用解析器校验签名、按令牌摘要缓存校验结果(优化后)
+ *
+ * 运行方式见 DishFlavorBenchmark，类名换成 JwtVerifyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET_KEY = "itcast";
+
+    private String token;
+    private JwtClaimsCache jwtClaimsCache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtClaimsConstant.EMP_ID, 1L);
+        token = JwtUtil.createJWT(SECRET_KEY, TimeUnit.HOURS.toMillis(2), claims);
+
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setAdminSecretKey(SECRET_KEY);
+        jwtClaimsCache = new JwtClaimsCache();
+        ReflectionTestUtils.setField(jwtClaimsCache, "jwtProperties", jwtProperties);
+        ReflectionTestUtils.setField(jwtClaimsCache, "meterRegistry", new SimpleMeterRegistry());
+        jwtClaimsCache.init();
+        if (!Long.valueOf(1L).equals(jwtClaimsCache.verifyAdmin(token))) {
+            throw new IllegalStateException("令牌校验结果不正确");
+        }
+    }
+
+    /**
+     * 优化前：每个请求新建解析器、转换秘钥并校验签名
+     */
+    @Benchmark
+    public Long newParser() {
+        Claims claims = Jwts.parser()
+                .setSigningKey(SECRET_KEY.getBytes(StandardCharsets.UTF_8))
+                .parseClaimsJws(token).getBody();
+        return Long.valueOf(claims.get(JwtClaimsConstant.EMP_ID).toString());
+    }
+
+    /**
+     * 复用解析器，每个请求仍校验签名
+     */
+    @Benchmark
+    public Long sharedParser() {
+        Claims claims = JwtUtil.parseJWT(SECRET_KEY, token);
+        return Long.valueOf(claims.get(JwtClaimsConstant.EMP_ID).toString());
+    }
+
+    /**
+     * 优化后：按令牌摘要命中缓存，不再校验签名
+     */
+    @Benchmark
+    public Long cached() {
+        return jwtClaimsCache.verifyAdmin(token);
+    }
+}
@@ -0,0 +1,151 @@
+package com.sky.benchmark;
+
+import com.sky.cache.NgramIndex;
+import com.sky.constant.BatchConstant;
+import com.sky.dto.DishPageQueryDTO;
+import com.sky.mapper.DishMapper;
+import com.sky.vo.DishVO;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 管理端按名称分页查询菜品(第一页10条)：name like '%xxx%' 与 名称索引 + id条件 的对比，dish表10万行
+ * 查询词：红烧牛肉 命中约80行；佛跳墙 不命中，索引未命中时退回模糊查询
+ *
+ * 运行方式见 DishFlavorBenchmark，类名换成 NameIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameIndexBenchmark {
+
+    private static final int ROWS = 100000;
+    private static final int PAGE_SIZE = 10;
+    private static final String[] COOKING = {"红烧", "清蒸", "香辣", "麻辣", "糖醋", "干煸", "酱爆", "水煮", "小炒", "油焖",
+            "葱爆", "蒜蓉", "黑椒", "孜然", "椒盐", "白灼", "剁椒", "鱼香", "宫保", "京酱",
+            "咖喱", "照烧", "卤味", "藤椒", "酸菜", "泡椒", "干锅", "铁板", "啤酒", "豉汁"};
+    private static final String[] INGREDIENTS = {"牛肉", "鸡丁", "鱼片", "虾仁", "排骨", "豆腐", "茄子", "土豆", "肥肠", "鸭血",
+            "羊肉", "猪蹄", "鸡翅", "牛蛙", "鱿鱼", "花甲", "藕片", "腐竹", "肉丝", "里脊",
+            "鸡腿", "鸭掌", "毛肚", "黄喉", "午餐肉", "金针菇", "西兰花", "包菜", "豆角", "青笋",
+            "鲈鱼", "草鱼", "带鱼", "扇贝", "生蚝", "鸡杂", "猪肝", "腰花", "牛腩", "五花肉"};
+    private static final String[] SUFFIXES = {"", "饭", "面", "套餐"};
+
+    @Param({"红烧牛肉", "佛跳墙"})
+    public String name;
+
+    private BenchmarkDatabase database;
+    private final NgramIndex index = new NgramIndex();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        database = new BenchmarkDatabase("mapper/DishMapper.xml");
+        Random random = new Random(42);
+        Map<Long, String> names = new HashMap<>();
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        try (Connection connection = database.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement dish = connection.prepareStatement(
+                    "insert into dish (id, name, category_id, price, status, create_time, update_time)"
+                            + " values (?, ?, ?, 38.00, 1, ?, ?)")) {
+                for (long id = 1; id <= ROWS; id++) {
+                    String dishName = COOKING[random.nextInt(COOKING.length)]
+                            + INGREDIENTS[random.nextInt(INGREDIENTS.length)]
+                            + SUFFIXES[random.nextInt(SUFFIXES.length)];
+                    Timestamp createTime = Timestamp.valueOf(start.plusMinutes(id * 5));
+                    dish.setLong(1, id);
+                    dish.setString(2, dishName);
+                    dish.setLong(3, 1 + random.nextInt(50));
+                    dish.setTimestamp(4, createTime);
+                    dish.setTimestamp(5, createTime);
+                    dish.addBatch();
+                    if (id % 5000 == 0) {
+                        dish.executeBatch();
+                    }
+                    names.put(id, dishName);
+                }
+            }
+            connection.commit();
+        }
+        database.runScript("benchmark/dish_create_time_index.sql");
+        index.rebuild(names, 1);
+        // 两种方式的结果必须一致，对比才有意义
+        List<Long> expected = ids(like());
+        List<Long> actual = ids(nameIndex());
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("查询结果不一致:" + expected + " / " + actual);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * 优化前：name like '%xxx%'，全表扫描
+     */
+    @Benchmark
+    public List<DishVO> like() {
+        DishPageQueryDTO query = new DishPageQueryDTO();
+        query.setName(name);
+        return page(query);
+    }
+
+    /**
+     * 优化后：先查名称索引，命中数量不超过上限时用id条件查询，未命中时退回模糊查询
+     */
+    @Benchmark
+    public List<DishVO> nameIndex() {
+        DishPageQueryDTO query = new DishPageQueryDTO();
+        query.setName(name);
+        List<Long> ids = index.search(name);
+        if (!ids.isEmpty() && ids.size() <= BatchConstant.MAX_IN_SIZE) {
+            query.setIds(ids);
+        }
+        return page(query);
+    }
+
+    /**
+     * 只查询名称索引，不访问数据库
+     */
+    @Benchmark
+    public List<Long> indexSearchOnly() {
+        return index.search(name);
+    }
+
+    private List<DishVO> page(DishPageQueryDTO query) {
+        try (SqlSession session = database.openSession()) {
+            return session.getMapper(DishMapper.class).pageQueryByCursor(query, null, null, PAGE_SIZE + 1);
+        }
+    }
+
+    private static List<Long> ids(List<DishVO> dishes) {
+        return dishes.stream().map(DishVO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,100 @@
+package com.sky.benchmark;
+
+import com.sky.config.RedisConfiguration;
+import com.sky.entity.DishFlavor;
+import com.sky.vo.DishVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 菜品缓存值的序列化：jdk序列化(优化前) 与 smile格式(优化后，RedisConfiguration中菜品模板的序列化器) 的对比
+ * 一个分类的菜品列表，每个菜品3种口味；序列化后的字节数在setup中输出
+ *
+ * 运行方式见 DishFlavorBenchmark，类名换成 RedisValueBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisValueBenchmark {
+
+    private static final String[][] FLAVORS = {
+            {"辣度", "[\"不辣\",\"微辣\",\"中辣\",\"重辣\"]"},
+            {"忌口", "[\"不要葱\",\"不要蒜\",\"不要香菜\",\"不要辣\"]"},
+            {"温度", "[\"热饮\",\"常温\",\"去冰\",\"少冰\",\"多冰\"]"}
+    };
+
+    @Param({"20", "200"})
+    public int dishes;
+
+    private final RedisSerializer<Object> jdkSerializer = new JdkSerializationRedisSerializer();
+    private RedisSerializer<List<DishVO>> smileSerializer;
+    private List<DishVO> dishList;
+    private byte[] jdkBytes;
+    private byte[] smileBytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        // 与线上使用同一个序列化器，模板未连接redis，只取序列化器
+        smileSerializer = (RedisSerializer<List<DishVO>>) new RedisConfiguration()
+                .dishListRedisTemplate(null).getValueSerializer();
+        LocalDateTime now = LocalDateTime.now();
+        dishList = new ArrayList<>();
+        for (long id = 1; id <= dishes; id++) {
+            List<DishFlavor> flavors = new ArrayList<>();
+            for (String[] f : FLAVORS) {
+                flavors.add(DishFlavor.builder().dishId(id).name(f[0]).value(f[1]).build());
+            }
+            dishList.add(DishVO.builder().id(id).name("菜品" + id).categoryId(1L).price(new BigDecimal("38.00"))
+                    .image("https://sky-take-out.oss/dish.png").description("招牌菜品").status(1)
+                    .createTime(now).updateTime(now).categoryName("热销菜品").flavors(flavors).build());
+        }
+        jdkBytes = jdkSerializer.serialize(dishList);
+        smileBytes = smileSerializer.serialize(dishList);
+        if (!dishList.equals(smileSerializer.deserialize(smileBytes))) {
+            throw new IllegalStateException("smile反序列化结果不一致");
+        }
+        // 输出只用ascii字符，避免fork出的jvm控制台编码不同导致乱码
+        System.out.println("dishes=" + dishes + " jdk=" + jdkBytes.length + "B smile=" + smileBytes.length + "B");
+    }
+
+    @Benchmark
+    public byte[] jdkSerialize() {
+        return jdkSerializer.serialize(dishList);
+    }
+
+    @Benchmark
+    public Object jdkDeserialize() {
+        return jdkSerializer.deserialize(jdkBytes);
+    }
+
+    @Benchmark
+    public byte[] smileSerialize() {
+        return smileSerializer.serialize(dishList);
+    }
+
+    @Benchmark
+    public List<DishVO> smileDeserialize() {
+        return smileSerializer.deserialize(smileBytes);
+    }
+}
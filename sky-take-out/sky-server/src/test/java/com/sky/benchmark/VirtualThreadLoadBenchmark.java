@@ -0,0 +1,116 @@
+package com.sky.benchmark;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.pagehelper.ISelect;
+import com.github.pagehelper.PageHelper;
+import com.sky.cache.PageTotalCache;
+import com.sky.enumeration.CountMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分页count缓存在并发请求下的负载测试：一批1000个并发请求，每个请求count缓存未命中，执行一次阻塞10ms的count
+ * 请求线程：tomcat默认的200个平台线程 与 每个请求一个虚拟线程
+ * count方式：在 cache.get 的compute锁内执行(优化前) 与 getIfPresent未命中后在锁外执行再put(优化后)
+ * 虚拟线程需要JDK21，用JDK21的java命令运行
+ *
+ * 运行方式见 DishFlavorBenchmark，类名换成 VirtualThreadLoadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    private static final int REQUESTS = 1000;
+    // tomcat默认的最大线程数
+    private static final int PLATFORM_THREADS = 200;
+    // 模拟一次数据库count的耗时(毫秒)
+    private static final long COUNT_MILLIS = 10;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ExecutorService executor;
+    private final PageTotalCache pageTotalCache = new PageTotalCache();
+    // 优化前的写法
+    private final Cache<String, Long> computeCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(60, TimeUnit.SECONDS)
+            .build();
+    // 每个请求使用不同的过滤条件，保证缓存未命中
+    private final AtomicLong filters = new AtomicLong();
+    private final ISelect countSelect = () -> {
+        try {
+            Thread.sleep(COUNT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if ("virtual".equals(threads)) {
+            // 测试代码同样按Java8编译
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } else {
+            executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 优化前：count在 cache.get 的compute锁内执行
+     */
+    @Benchmark
+    public long countInsideCompute() throws Exception {
+        return run(() -> computeCache.get("dish|" + filters.incrementAndGet(), key -> PageHelper.count(countSelect)));
+    }
+
+    /**
+     * 优化后：PageTotalCache，count在锁外执行
+     */
+    @Benchmark
+    public long countOutsideCache() throws Exception {
+        return run(() -> pageTotalCache.total(CountMode.CACHED, "dish", String.valueOf(filters.incrementAndGet()), countSelect));
+    }
+
+    private long run(Callable<Long> request) throws Exception {
+        List<Future<Long>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(request));
+        }
+        long sum = 0;
+        for (Future<Long> future : futures) {
+            sum += future.get();
+        }
+        return sum;
+    }
+}
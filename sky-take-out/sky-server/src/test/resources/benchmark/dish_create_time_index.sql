@@ -0,0 +1,2 @@
+-- 与线上库一致，分页按创建时间倒序
+create index idx_dish_create_time on dish (create_time);
@@ -0,0 +1,54 @@
+-- 基准测试使用的表结构，与线上库的 category、dish、dish_flavor、setmeal 表一致
+drop table if exists dish_flavor;
+drop table if exists dish;
+drop table if exists setmeal;
+drop table if exists category;
+
+create table category (
+    id          bigint auto_increment primary key,
+    type        int,
+    name        varchar(32)  not null,
+    sort        int          not null default 0,
+    status      int,
+    create_time datetime,
+    update_time datetime,
+    create_user bigint,
+    update_user bigint
+);
+
+create table dish (
+    id          bigint auto_increment primary key,
+    name        varchar(32)   not null,
+    category_id bigint        not null,
+    price       decimal(10, 2),
+    image       varchar(255),
+    description varchar(255),
+    status      int default 1,
+    create_time datetime,
+    update_time datetime,
+    create_user bigint,
+    update_user bigint
+);
+create index idx_dish_category on dish (category_id);
+
+create table dish_flavor (
+    id      bigint auto_increment primary key,
+    dish_id bigint not null,
+    name    varchar(32),
+    value   varchar(255)
+);
+create index idx_flavor_dish on dish_flavor (dish_id);
+
+create table setmeal (
+    id          bigint auto_increment primary key,
+    category_id bigint        not null,
+    name        varchar(32)   not null,
+    price       decimal(10, 2) not null,
+    status      int default 1,
+    description varchar(255),
+    image       varchar(255),
+    create_time datetime,
+    update_time datetime,
+    create_user bigint,
+    update_user bigint
+);